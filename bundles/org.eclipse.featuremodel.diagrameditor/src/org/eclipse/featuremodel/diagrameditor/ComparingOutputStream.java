@@ -0,0 +1,242 @@
+package org.eclipse.featuremodel.diagrameditor;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.URIConverter;
+
+/**
+ * An output stream comparing the written bytes with the existing content of a file while they are
+ * written. As long as the bytes are equal nothing is stored. At the first difference the equal
+ * prefix is copied from the existing file to a temporary file and all further bytes are written to
+ * the temporary file, so neither the old nor the new content is held in memory. After closing the
+ * stream {@link #isChanged()} tells whether the temporary file holds a new content.
+ * 
+ */
+final class ComparingOutputStream extends OutputStream {
+
+    /**
+     * The size of the buffers.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The URI converter to read the existing file.
+     */
+    private final URIConverter uriConverter;
+
+    /**
+     * The URI of the existing file.
+     */
+    private final URI uri;
+
+    /**
+     * The temporary file for the new content.
+     */
+    private final File tempFile;
+
+    /**
+     * The existing content not compared yet, <code>null</code> after a difference has been found.
+     */
+    private InputStream existing;
+
+    /**
+     * The buffer holding the existing bytes to compare with.
+     */
+    private final byte[] compareBuffer = new byte[BUFFER_SIZE];
+
+    /**
+     * The number of bytes equal to the existing content.
+     */
+    private long matched;
+
+    /**
+     * The stream to the temporary file, <code>null</code> as long as no difference has been found.
+     */
+    private OutputStream temp;
+
+    /**
+     * Whether the stream has been closed.
+     */
+    private boolean closed;
+
+    /**
+     * Creates an instance of {@link ComparingOutputStream}. If the file does not exist, all bytes
+     * are written to the temporary file.
+     * 
+     * @param uriConverter
+     *            The URI converter to read the existing file.
+     * @param uri
+     *            The URI of the existing file.
+     * @param tempFile
+     *            The temporary file for the new content.
+     * @throws IOException
+     *             if the existing file cannot be opened or the temporary file cannot be created.
+     */
+    ComparingOutputStream(URIConverter uriConverter, URI uri, File tempFile) throws IOException {
+        this.uriConverter = uriConverter;
+        this.uri = uri;
+        this.tempFile = tempFile;
+        if (uriConverter.exists(uri, null)) {
+            this.existing = new BufferedInputStream(uriConverter.createInputStream(uri), BUFFER_SIZE);
+        } else {
+            diverge();
+        }
+    }
+
+    /**
+     * Checks whether the written content differs from the existing file. Valid after the stream has
+     * been closed.
+     * 
+     * @return true if the temporary file holds the new content.
+     */
+    boolean isChanged() {
+        return this.temp != null;
+    }
+
+    /**
+     * Writes the given byte.
+     * 
+     * @param b
+     *            The byte.
+     * @throws IOException
+     *             if the existing file cannot be read or the temporary file cannot be written.
+     */
+    @Override
+    public void write(int b) throws IOException {
+        if (this.temp == null) {
+            if (this.existing.read() == (b & 0xFF)) {
+                this.matched++;
+                return;
+            }
+            diverge();
+        }
+        this.temp.write(b);
+    }
+
+    /**
+     * Writes the given bytes.
+     * 
+     * @param b
+     *            The bytes.
+     * @param off
+     *            The offset of the first byte to write.
+     * @param len
+     *            The number of bytes to write.
+     * @throws IOException
+     *             if the existing file cannot be read or the temporary file cannot be written.
+     */
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        int done = 0;
+        while (this.temp == null && done < len) {
+            int read = this.existing.read(this.compareBuffer, 0, Math.min(len - done, BUFFER_SIZE));
+            if (read < 0) {
+                diverge();
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (this.compareBuffer[i] != b[off + done + i]) {
+                    this.matched += i;
+                    done += i;
+                    diverge();
+                    break;
+                }
+            }
+            if (this.temp == null) {
+                this.matched += read;
+                done += read;
+            }
+        }
+        if (done < len) {
+            this.temp.write(b, off + done, len - done);
+        }
+    }
+
+    /**
+     * Flushes the temporary file.
+     * 
+     * @throws IOException
+     *             if the temporary file cannot be written.
+     */
+    @Override
+    public void flush() throws IOException {
+        if (this.temp != null) {
+            this.temp.flush();
+        }
+    }
+
+    /**
+     * Closes the stream. If the existing file is longer than the written content, the content has
+     * changed as well.
+     * 
+     * @throws IOException
+     *             if the existing file cannot be read or the temporary file cannot be written.
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        try {
+            if (this.temp == null && this.existing.read() >= 0) {
+                diverge();
+            }
+        } finally {
+            closeExisting();
+            if (this.temp != null) {
+                this.temp.close();
+            }
+        }
+    }
+
+    /**
+     * Switches to the temporary file: copies the equal prefix from the existing file.
+     * 
+     * @throws IOException
+     *             if the existing file cannot be read or the temporary file cannot be written.
+     */
+    private void diverge() throws IOException {
+        closeExisting();
+        this.temp = new BufferedOutputStream(new FileOutputStream(this.tempFile), BUFFER_SIZE);
+        if (this.matched == 0) {
+            return;
+        }
+
+        InputStream prefix = this.uriConverter.createInputStream(this.uri);
+        try {
+            long remaining = this.matched;
+            while (remaining > 0) {
+                int read = prefix.read(this.compareBuffer, 0, (int) Math.min(remaining, BUFFER_SIZE));
+                if (read < 0) {
+                    throw new IOException("The file " + this.uri + " has been changed while saving");
+                }
+                this.temp.write(this.compareBuffer, 0, read);
+                remaining -= read;
+            }
+        } finally {
+            prefix.close();
+        }
+    }
+
+    /**
+     * Closes the existing file.
+     * 
+     * @throws IOException
+     *             if the file cannot be closed.
+     */
+    private void closeExisting() throws IOException {
+        if (this.existing != null) {
+            InputStream in = this.existing;
+            this.existing = null;
+            in.close();
+        }
+    }
+}
@@ -1,40 +1,153 @@
-package org.eclipse.featuremodel.diagrameditor;
-
-import org.eclipse.gef.GraphicalViewer;
-import org.eclipse.gef.MouseWheelHandler;
-import org.eclipse.gef.MouseWheelZoomHandler;
-import org.eclipse.graphiti.ui.editor.DiagramEditor;
-import org.eclipse.swt.SWT;
-
-/**
- * A diagram editor for Feature Diagrams.
- * 
- */
-public class FMEDiagramEditor extends DiagramEditor {
-
-    /** the editor identifier. */
-    public static final String DIAGRAM_EDITOR_ID = "org.eclipse.featuremodel.diagrameditor.diagrameditor";
-    /** the diagram type name. */
-    public static final String DIAGRAM_TYPE_NAME = "Feature Diagram";
-    /** the diagram type id. */
-    public static final String DIAGRAM_TYPE_ID = "org.eclipse.featuremodel.diagrameditor.diagramtype";
-    /** the diagram type provider id. */
-    public static final String DIAGRAM_TYPE_PROVIDER_ID = "org.eclipse.featuremodel.diagrameditor.diagramtypeprovider";
-    /** The file extension for Feature Diagram files. */
-    public static final String DIAGRAM_FILE_EXTENSION = "featurediagram";
-    /** The file extension for Feature Model files. */
-    public static final String MODEL_FILE_EXTENSION = "featuremodel";
-
-    /**
-     * Called to configure the editor, before it receives its content. The default-implementation is
-     * for example doing the following: configure the ZoomManager, registering Actions... This
-     * implementation adds support for mouse wheel zooming in the editor.
-     */
-    @Override
-    protected void configureGraphicalViewer() {
-        super.configureGraphicalViewer();
-        // add zooming action with "CTRL + Mouse Wheel"
-        GraphicalViewer viewer = getGraphicalViewer();
-        viewer.setProperty(MouseWheelHandler.KeyGenerator.getKey(SWT.MOD1), MouseWheelZoomHandler.SINGLETON);
-    }
-}
+package org.eclipse.featuremodel.diagrameditor;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
+import org.eclipse.gef.GraphicalViewer;
+import org.eclipse.gef.MouseWheelHandler;
+import org.eclipse.gef.MouseWheelZoomHandler;
+import org.eclipse.graphiti.ui.editor.DefaultUpdateBehavior;
+import org.eclipse.graphiti.ui.editor.DiagramEditor;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.ui.IEditorInput;
+import org.eclipse.ui.IEditorSite;
+import org.eclipse.ui.PartInitException;
+import org.eclipse.ui.PlatformUI;
+
+/**
+ * A diagram editor for Feature Diagrams.
+ * 
+ */
+public class FMEDiagramEditor extends DiagramEditor {
+
+    /** the editor identifier. */
+    public static final String DIAGRAM_EDITOR_ID = "org.eclipse.featuremodel.diagrameditor.diagrameditor";
+    /** the diagram type name. */
+    public static final String DIAGRAM_TYPE_NAME = "Feature Diagram";
+    /** the diagram type id. */
+    public static final String DIAGRAM_TYPE_ID = "org.eclipse.featuremodel.diagrameditor.diagramtype";
+    /** the diagram type provider id. */
+    public static final String DIAGRAM_TYPE_PROVIDER_ID = "org.eclipse.featuremodel.diagrameditor.diagramtypeprovider";
+    /** The file extension for Feature Diagram files. */
+    public static final String DIAGRAM_FILE_EXTENSION = "featurediagram";
+    /** The file extension for Feature Model files. */
+    public static final String MODEL_FILE_EXTENSION = "featuremodel";
+
+    /** The edit part factory rendering the diagram progressively. */
+    private ProgressiveEditPartFactory editPartFactory;
+
+    /**
+     * Called to configure the editor, before it receives its content. The default-implementation is
+     * for example doing the following: configure the ZoomManager, registering Actions... This
+     * implementation adds support for mouse wheel zooming in the editor and renders large diagrams
+     * progressively (see {@link ProgressiveEditPartFactory}).
+     */
+    @Override
+    protected void configureGraphicalViewer() {
+        super.configureGraphicalViewer();
+        // add zooming action with "CTRL + Mouse Wheel"
+        GraphicalViewer viewer = getGraphicalViewer();
+        viewer.setProperty(MouseWheelHandler.KeyGenerator.getKey(SWT.MOD1), MouseWheelZoomHandler.SINGLETON);
+
+        this.editPartFactory = new ProgressiveEditPartFactory(viewer.getEditPartFactory());
+        viewer.setEditPartFactory(this.editPartFactory);
+    }
+
+    /**
+     * Called to set the contents of the editor. This implementation renders the top levels of the
+     * Feature tree first and fills in the deeper levels afterwards.
+     */
+    @Override
+    protected void initializeGraphicalViewer() {
+        this.editPartFactory.defer(getDiagramTypeProvider().getDiagram());
+        super.initializeGraphicalViewer();
+        this.editPartFactory.scheduleRelease(getGraphicalViewer());
+    }
+
+    /**
+     * Creates the update behavior, which ignores the changes of the files saved in background (see
+     * {@link FMEUpdateBehavior}).
+     * 
+     * @return The update behavior.
+     */
+    @Override
+    protected DefaultUpdateBehavior createUpdateBehavior() {
+        return new FMEUpdateBehavior(this);
+    }
+
+    /**
+     * Initializes the editor and starts the workspace synchronizer of the update behavior, which
+     * tells the files saved in background from files changed by others (see
+     * {@link FMEUpdateBehavior}).
+     * 
+     * @param site
+     *            The editor site.
+     * @param input
+     *            The editor input.
+     * @throws PartInitException
+     *             if the editor cannot be initialized.
+     */
+    @Override
+    public void init(IEditorSite site, IEditorInput input) throws PartInitException {
+        super.init(site, input);
+        ((FMEUpdateBehavior) getUpdateBehavior()).startSynchronizer(getEditingDomain());
+    }
+
+    /**
+     * Saves the editor in background (see {@link SaveDiagramJob}). The modified resources are
+     * copied in the UI thread, serialized and written by a job. The editor stays dirty until the job
+     * has finished and it has not been changed meanwhile. While the workbench is closing the editor
+     * is saved in the UI thread.
+     * 
+     * @param monitor
+     *            The progress monitor.
+     */
+    @Override
+    public void doSave(IProgressMonitor monitor) {
+        if (PlatformUI.getWorkbench().isClosing()) {
+            super.doSave(monitor);
+            return;
+        }
+
+        final SaveDiagramJob job;
+        try {
+            job = SaveDiagramJob.snapshot(getEditingDomain(), (FMEUpdateBehavior) getUpdateBehavior());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        job.addJobChangeListener(new JobChangeAdapter() {
+            @Override
+            public void done(IJobChangeEvent event) {
+                if (event.getResult().isOK()) {
+                    Display.getDefault().asyncExec(new Runnable() {
+                        @Override
+                        public void run() {
+                            savedInBackground(job);
+                        }
+                    });
+                }
+            }
+        });
+        job.schedule();
+    }
+
+    /**
+     * Updates the dirty state after the given job has saved the editor.
+     * 
+     * @param job
+     *            The finished job.
+     */
+    private void savedInBackground(SaveDiagramJob job) {
+        GraphicalViewer viewer = getGraphicalViewer();
+        // the editor has been closed in the meantime
+        if (viewer == null || viewer.getControl() == null || viewer.getControl().isDisposed()) {
+            return;
+        }
+
+        if (job.reconcile()) {
+            firePropertyChange(PROP_DIRTY);
+        }
+    }
+}
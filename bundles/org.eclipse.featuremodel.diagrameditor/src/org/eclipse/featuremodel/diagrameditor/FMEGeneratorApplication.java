@@ -0,0 +1,177 @@
+package org.eclipse.featuremodel.diagrameditor;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.equinox.app.IApplication;
+import org.eclipse.equinox.app.IApplicationContext;
+import org.eclipse.featuremodel.FeatureModel;
+import org.eclipse.featuremodel.diagrameditor.utilities.BOUtil.RelationType;
+import org.eclipse.featuremodel.diagrameditor.utilities.FeatureModelGenerator;
+
+/**
+ * Headless application writing a synthetic Feature Model (see {@link FeatureModelGenerator}) to a
+ * .featuremodel file. The application is started with
+ * <code>-application org.eclipse.featuremodel.diagrameditor.generator</code> and accepts the
+ * following arguments:
+ * <ul>
+ * <li><code>-output model.featuremodel</code> the file to write (required)</li>
+ * <li><code>-features 10000</code> the maximal number of Features</li>
+ * <li><code>-depth 5</code> the maximal depth of the tree</li>
+ * <li><code>-branching 4</code> the number of child Features of every Feature</li>
+ * <li><code>-groupSize 3</code> the maximal number of Features in an OR or XOR Group</li>
+ * <li><code>-mix 1,1,1,1</code> the weights of Mandatory, Optional, OR and XOR Groups</li>
+ * <li><code>-seed 0</code> the seed of the random decisions</li>
+ * <li><code>-format binary</code> the file format, <code>xmi</code> (default) or <code>binary</code>
+ * (see {@link FMEResourceImpl})</li>
+ * </ul>
+ * 
+ */
+public class FMEGeneratorApplication implements IApplication {
+
+    /**
+     * Exit code for invalid arguments.
+     */
+    private static final Integer EXIT_INVALID_ARGUMENTS = Integer.valueOf(1);
+
+    /**
+     * The usage message.
+     */
+    private static final String USAGE = "Usage: -output <file> [-features <n>] [-depth <n>] [-branching <n>]"
+            + " [-groupSize <n>] [-mix <mandatory>,<optional>,<or>,<xor>] [-seed <n>] [-format xmi|binary]";
+
+    /**
+     * Generates the Feature Model and writes it to the output file.
+     * 
+     * @param context
+     *            The application context.
+     * @return {@link IApplication#EXIT_OK} or 1 if the arguments are invalid.
+     * @throws Exception
+     *             if the file cannot be written.
+     */
+    @Override
+    public Object start(IApplicationContext context) throws Exception {
+        Map<String, String> options = parseOptions((String[]) context.getArguments().get(
+                IApplicationContext.APPLICATION_ARGS));
+        String output = options.get("-output");
+        if (output == null) {
+            System.err.println(USAGE);
+            return EXIT_INVALID_ARGUMENTS;
+        }
+
+        String format = options.containsKey("-format") ? options.get("-format") : "xmi";
+        if (!"xmi".equals(format) && !"binary".equals(format)) {
+            System.err.println(USAGE);
+            return EXIT_INVALID_ARGUMENTS;
+        }
+
+        FeatureModelGenerator generator;
+        try {
+            generator = createGenerator(options);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            return EXIT_INVALID_ARGUMENTS;
+        }
+
+        long start = System.currentTimeMillis();
+        FeatureModel featureModel = generator.generate();
+        save(featureModel, URI.createFileURI(new File(output).getAbsolutePath()), "binary".equals(format));
+        System.out.println("Wrote " + output + " (" + (System.currentTimeMillis() - start) + " ms)");
+        return IApplication.EXIT_OK;
+    }
+
+    /**
+     * Nothing to stop, the generation runs synchronously.
+     */
+    @Override
+    public void stop() {
+        // nothing to do
+    }
+
+    /**
+     * Creates the generator configured by the given options.
+     * 
+     * @param options
+     *            The options.
+     * @return The generator.
+     * @throws IllegalArgumentException
+     *             if an option value is invalid.
+     */
+    private FeatureModelGenerator createGenerator(Map<String, String> options) {
+        FeatureModelGenerator generator = new FeatureModelGenerator(options.containsKey("-seed") ? Long
+                .parseLong(options.get("-seed")) : 0);
+        if (options.containsKey("-features")) {
+            generator.setMaxFeatures(Integer.parseInt(options.get("-features")));
+        }
+        if (options.containsKey("-depth")) {
+            generator.setMaxDepth(Integer.parseInt(options.get("-depth")));
+        }
+        if (options.containsKey("-branching")) {
+            generator.setBranchingFactor(Integer.parseInt(options.get("-branching")));
+        }
+        if (options.containsKey("-groupSize")) {
+            generator.setMaxGroupSize(Integer.parseInt(options.get("-groupSize")));
+        }
+        if (options.containsKey("-mix")) {
+            String[] weights = options.get("-mix").split(",");
+            RelationType[] types = RelationType.values();
+            if (weights.length != types.length) {
+                throw new IllegalArgumentException("-mix expects " + types.length + " weights");
+            }
+            for (int i = 0; i < types.length; i++) {
+                generator.setRelationWeight(types[i], Integer.parseInt(weights[i].trim()));
+            }
+        }
+        return generator;
+    }
+
+    /**
+     * Collects the options of the form <code>-name value</code> from the application arguments.
+     * 
+     * @param args
+     *            The application arguments, may be <code>null</code>.
+     * @return The option values by option name.
+     */
+    private Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<String, String>();
+        if (args != null) {
+            for (int i = 0; i + 1 < args.length; i++) {
+                if (args[i].startsWith("-") && !args[i + 1].startsWith("-")) {
+                    options.put(args[i], args[i + 1]);
+                    i++;
+                }
+            }
+        }
+        return options;
+    }
+
+    /**
+     * Saves the given Feature Model to a new resource. If no resource factory is registered for the
+     * URI, the Feature Model is saved by a {@link FMEResourceImpl}.
+     * 
+     * @param featureModel
+     *            The Feature Model.
+     * @param uri
+     *            The URI of the resource.
+     * @param binary
+     *            true to save in the binary format, false to save as XMI.
+     * @throws IOException
+     *             if the resource cannot be saved.
+     */
+    private void save(FeatureModel featureModel, URI uri, boolean binary) throws IOException {
+        Resource resource = new ResourceSetImpl().createResource(uri);
+        if (resource == null) {
+            resource = new FMEResourceImpl(uri);
+        }
+        resource.getContents().add(featureModel);
+        Map<Object, Object> saveOptions = new HashMap<Object, Object>(FMEDiagramEditorUtil.getSaveOptions());
+        saveOptions.put(FMEResourceImpl.OPTION_BINARY_FORMAT, Boolean.valueOf(binary));
+        resource.save(saveOptions);
+    }
+}
@@ -1,58 +1,58 @@
-package org.eclipse.featuremodel.diagrameditor;
-
-import org.eclipse.ui.plugin.AbstractUIPlugin;
-import org.osgi.framework.BundleContext;
-
-/**
- * The activator class controls the plug-in life cycle.
- */
-public class FMEPlugin extends AbstractUIPlugin {
-
-    /**
-     * The plug-in ID.
-     **/
-    public static final String PLUGIN_ID = "org.eclipse.featuremodel.diagrameditor"; //$NON-NLS-1$
-
-    /**
-     * The shared instance.
-     */
-    private static FMEPlugin plugin;
-
-    /**
-     * The constructor.
-     */
-    public FMEPlugin() {
-    }
-
-    /*
-     * (non-Javadoc)
-     * 
-     * @see org.eclipse.ui.plugin.AbstractUIPlugin#start(org.osgi.framework.BundleContext)
-     */
-    @Override
-    public void start(BundleContext context) throws Exception {
-        super.start(context);
-        plugin = this;
-    }
-
-    /*
-     * (non-Javadoc)
-     * 
-     * @see org.eclipse.ui.plugin.AbstractUIPlugin#stop(org.osgi.framework.BundleContext)
-     */
-    @Override
-    public void stop(BundleContext context) throws Exception {
-        plugin = null;
-        super.stop(context);
-    }
-
-    /**
-     * Returns the shared instance.
-     * 
-     * @return the shared instance
-     */
-    public static FMEPlugin getDefault() {
-        return plugin;
-    }
-
-}
+package org.eclipse.featuremodel.diagrameditor;
+
+import org.eclipse.ui.plugin.AbstractUIPlugin;
+import org.osgi.framework.BundleContext;
+
+/**
+ * The activator class controls the plug-in life cycle.
+ */
+public class FMEPlugin extends AbstractUIPlugin {
+
+    /**
+     * The plug-in ID.
+     **/
+    public static final String PLUGIN_ID = "org.eclipse.featuremodel.diagrameditor"; //$NON-NLS-1$
+
+    /**
+     * The shared instance.
+     */
+    private static FMEPlugin plugin;
+
+    /**
+     * The constructor.
+     */
+    public FMEPlugin() {
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see org.eclipse.ui.plugin.AbstractUIPlugin#start(org.osgi.framework.BundleContext)
+     */
+    @Override
+    public void start(BundleContext context) throws Exception {
+        super.start(context);
+        plugin = this;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see org.eclipse.ui.plugin.AbstractUIPlugin#stop(org.osgi.framework.BundleContext)
+     */
+    @Override
+    public void stop(BundleContext context) throws Exception {
+        plugin = null;
+        super.stop(context);
+    }
+
+    /**
+     * Returns the shared instance.
+     * 
+     * @return the shared instance
+     */
+    public static FMEPlugin getDefault() {
+        return plugin;
+    }
+
+}
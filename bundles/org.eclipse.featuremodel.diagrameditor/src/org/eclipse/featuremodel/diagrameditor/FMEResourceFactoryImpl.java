@@ -0,0 +1,25 @@
+package org.eclipse.featuremodel.diagrameditor;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.impl.ResourceFactoryImpl;
+
+/**
+ * The resource factory of Feature Model and Feature Diagram files, creating a
+ * {@link FMEResourceImpl} for every file.
+ * 
+ */
+public class FMEResourceFactoryImpl extends ResourceFactoryImpl {
+
+    /**
+     * Creates the resource for the given URI.
+     * 
+     * @param uri
+     *            The URI of the resource.
+     * @return The new resource.
+     */
+    @Override
+    public Resource createResource(URI uri) {
+        return new FMEResourceImpl(uri);
+    }
+}
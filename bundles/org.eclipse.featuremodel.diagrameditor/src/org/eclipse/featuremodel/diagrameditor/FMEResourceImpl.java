@@ -0,0 +1,319 @@
+package org.eclipse.featuremodel.diagrameditor;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.emf.common.EMFPlugin;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.resource.URIConverter;
+import org.eclipse.emf.ecore.resource.impl.BinaryResourceImpl;
+import org.eclipse.emf.ecore.xmi.XMLParserPool;
+import org.eclipse.emf.ecore.xmi.impl.XMIResourceImpl;
+import org.eclipse.emf.ecore.xmi.impl.XMLParserPoolImpl;
+
+/**
+ * The resource of Feature Model and Feature Diagram files. The files are stored as XMI or in the
+ * compact binary format of {@link BinaryResourceImpl}, which is loaded and saved several times
+ * faster. The format of a file is detected on load and kept on save. New files are stored as XMI
+ * unless the binary format is switched on by the preference {@link #PREF_BINARY_FORMAT} of the
+ * plug-in (e.g. <code>org.eclipse.featuremodel.diagrameditor/binaryFormat=true</code> in the
+ * plug-in customization) or requested by the save option {@link #OPTION_BINARY_FORMAT}.
+ * <p>
+ * With the save option {@link #OPTION_SAVE_ONLY_IF_CHANGED} set to
+ * {@link #OPTION_SAVE_ONLY_IF_CHANGED_STREAM} the file is only written if its content changes,
+ * without buffering the serialized resource in memory (see {@link #save(Map)}).
+ * <p>
+ * XMI files are loaded with the tuned load options of {@link #getFastLoadOptions()} by default,
+ * so the Feature Diagram editor and every other resource set using {@link FMEResourceFactoryImpl}
+ * share one parser pool and one name-to-feature cache.
+ * 
+ */
+public class FMEResourceImpl extends XMIResourceImpl {
+
+    /**
+     * Save option to store the resource in the binary format ({@link Boolean#TRUE}) or as XMI
+     * ({@link Boolean#FALSE}). Without the option the format of the loaded file is kept.
+     */
+    public static final String OPTION_BINARY_FORMAT = "BINARY_FORMAT";
+
+    /**
+     * The preference to store new files in the binary format.
+     */
+    public static final String PREF_BINARY_FORMAT = "binaryFormat";
+
+    /**
+     * Value of the save option {@link #OPTION_SAVE_ONLY_IF_CHANGED} to compare the serialized
+     * resource with the existing file while it is serialized. Unlike
+     * {@link #OPTION_SAVE_ONLY_IF_CHANGED_MEMORY_BUFFER} the serialized resource is not held in
+     * memory, unlike {@link #OPTION_SAVE_ONLY_IF_CHANGED_FILE_BUFFER} nothing is written as long as
+     * the content is equal.
+     */
+    public static final String OPTION_SAVE_ONLY_IF_CHANGED_STREAM = "STREAM";
+
+    /**
+     * The first bytes of the signature every file written by {@link BinaryResourceImpl} starts with.
+     */
+    private static final byte[] BINARY_SIGNATURE = { (byte) 0x89, 'e', 'm', 'f' };
+
+    /**
+     * The size of the buffer copying a temporary file.
+     */
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The parser pool shared by all resources.
+     */
+    private static final XMLParserPool PARSER_POOL = new XMLParserPoolImpl();
+
+    /**
+     * The cache of the features by XML name shared by all resources, the loads may run in
+     * different threads.
+     */
+    private static final Map<Object, EStructuralFeature> NAME_TO_FEATURE_MAP = Collections
+            .synchronizedMap(new HashMap<Object, EStructuralFeature>());
+
+    /**
+     * Whether the resource is stored in the binary format.
+     */
+    private boolean binary;
+
+    /**
+     * Creates an instance of {@link FMEResourceImpl}.
+     * 
+     * @param uri
+     *            The URI of the resource.
+     */
+    public FMEResourceImpl(URI uri) {
+        super(uri);
+        this.binary = isBinaryFormatPreferred();
+        getDefaultLoadOptions().putAll(getFastLoadOptions());
+        // look up objects by intrinsic id without iterating the contents
+        setIntrinsicIDToEObjectMap(new HashMap<String, EObject>());
+    }
+
+    /**
+     * Creates the tuned load options for XMI files: the shared parser pool, the shared
+     * name-to-feature cache, the resolution of IDREFs after the whole file has been read and the
+     * attachment of the root objects at the end of the load, so the adapters are notified once.
+     * 
+     * @return new load options
+     */
+    public static Map<Object, Object> getFastLoadOptions() {
+        Map<Object, Object> loadOptions = new HashMap<Object, Object>();
+        loadOptions.put(OPTION_USE_PARSER_POOL, PARSER_POOL);
+        loadOptions.put(OPTION_USE_XML_NAME_TO_FEATURE_MAP, NAME_TO_FEATURE_MAP);
+        loadOptions.put(OPTION_USE_DEPRECATED_METHODS, Boolean.FALSE);
+        loadOptions.put(OPTION_DEFER_IDREF_RESOLUTION, Boolean.TRUE);
+        loadOptions.put(OPTION_DEFER_ATTACHMENT, Boolean.TRUE);
+        return loadOptions;
+    }
+
+    /**
+     * Checks whether the resource is stored in the binary format.
+     * 
+     * @return true if the resource has been loaded from or will be saved to a binary file.
+     */
+    public boolean isBinaryFormat() {
+        return this.binary;
+    }
+
+    /**
+     * Saves the resource. With the save option {@link #OPTION_SAVE_ONLY_IF_CHANGED_STREAM} the
+     * resource is serialized into a {@link ComparingOutputStream}, which compares the bytes with
+     * the existing file and only switches to a temporary file at the first difference. If the
+     * content has changed, the temporary file replaces the file: local files are renamed, the
+     * contents of workspace files are set from the temporary file through the workspace, other files
+     * are written from the temporary file through the URI converter.
+     * 
+     * @param options
+     *            The save options.
+     * @throws IOException
+     *             if the file cannot be written.
+     */
+    @Override
+    public void save(Map<?, ?> options) throws IOException {
+        Object saveOnlyIfChanged = options != null && options.containsKey(OPTION_SAVE_ONLY_IF_CHANGED) ? options
+                .get(OPTION_SAVE_ONLY_IF_CHANGED) : null;
+        if (!OPTION_SAVE_ONLY_IF_CHANGED_STREAM.equals(saveOnlyIfChanged) || useZip()) {
+            super.save(options);
+            return;
+        }
+
+        URIConverter uriConverter = getURIConverter();
+        URI uri = uriConverter.normalize(getURI());
+        File target = uri.isFile() ? new File(uri.toFileString()) : null;
+        // next to a local file, so it can be renamed
+        File tempFile = target != null && target.getAbsoluteFile().getParentFile() != null ? File.createTempFile(
+                "fme", ".tmp", target.getAbsoluteFile().getParentFile()) : File.createTempFile("fme", ".tmp");
+        try {
+            ComparingOutputStream out = new ComparingOutputStream(uriConverter, getURI(), tempFile);
+            try {
+                save(out, options);
+            } finally {
+                out.close();
+            }
+            if (out.isChanged()) {
+                replace(uriConverter, uri, target, tempFile, options);
+            }
+        } finally {
+            if (tempFile.exists()) {
+                tempFile.delete();
+            }
+        }
+    }
+
+    /**
+     * Replaces the file of the resource with the given temporary file. A local file is replaced by
+     * renaming the temporary file, a workspace file by setting its contents, so the workspace is
+     * updated in one step. Other files are overwritten through the URI converter.
+     * 
+     * @param uriConverter
+     *            The URI converter.
+     * @param uri
+     *            The normalized URI of the resource.
+     * @param target
+     *            The local file of the resource or <code>null</code> if the resource is not stored
+     *            in a local file.
+     * @param tempFile
+     *            The temporary file.
+     * @param options
+     *            The save options.
+     * @throws IOException
+     *             if the file cannot be written.
+     */
+    private void replace(URIConverter uriConverter, URI uri, File target, File tempFile, Map<?, ?> options)
+            throws IOException {
+        // replaces an existing file at once on POSIX file systems, fails on Windows
+        if (target != null && tempFile.renameTo(target)) {
+            return;
+        }
+
+        InputStream in = new FileInputStream(tempFile);
+        try {
+            if (uri.isPlatformResource() && EMFPlugin.IS_RESOURCES_BUNDLE_AVAILABLE) {
+                IFile file = ResourcesPlugin.getWorkspace().getRoot().getFile(new Path(uri.toPlatformString(true)));
+                try {
+                    if (file.exists()) {
+                        file.setContents(in, IResource.FORCE | IResource.KEEP_HISTORY, null);
+                    } else {
+                        file.create(in, IResource.FORCE, null);
+                    }
+                } catch (CoreException e) {
+                    throw new IOException("Unable to write " + uri, e);
+                }
+                return;
+            }
+
+            OutputStream out = uriConverter.createOutputStream(getURI(), options);
+            try {
+                byte[] buffer = new byte[COPY_BUFFER_SIZE];
+                for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+                    out.write(buffer, 0, read);
+                }
+            } finally {
+                out.close();
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Loads the resource from the given stream, the format is detected from the first bytes.
+     * 
+     * @param inputStream
+     *            The stream.
+     * @param options
+     *            The load options.
+     * @throws IOException
+     *             if the stream cannot be read.
+     */
+    @Override
+    protected void doLoad(InputStream inputStream, Map<?, ?> options) throws IOException {
+        InputStream in = inputStream.markSupported() ? inputStream : new BufferedInputStream(inputStream);
+        this.binary = isBinary(in);
+        if (this.binary) {
+            new BinaryResourceImpl.EObjectInputStream(in, options).loadResource(this);
+        } else {
+            super.doLoad(in, options);
+        }
+    }
+
+    /**
+     * Saves the resource to the given stream in the format requested by the save option
+     * {@link #OPTION_BINARY_FORMAT} or in the format of the resource.
+     * 
+     * @param outputStream
+     *            The stream.
+     * @param options
+     *            The save options.
+     * @throws IOException
+     *             if the stream cannot be written.
+     */
+    @Override
+    protected void doSave(OutputStream outputStream, Map<?, ?> options) throws IOException {
+        Object option = options == null ? null : options.get(OPTION_BINARY_FORMAT);
+        if (option != null) {
+            this.binary = Boolean.TRUE.equals(option);
+        }
+
+        if (this.binary) {
+            BinaryResourceImpl.EObjectOutputStream out = new BinaryResourceImpl.EObjectOutputStream(outputStream,
+                    options);
+            out.saveResource(this);
+            out.flush();
+        } else {
+            super.doSave(outputStream, options);
+        }
+    }
+
+    /**
+     * Checks whether the given stream contains a binary file, i.e. starts with the signature of
+     * {@link BinaryResourceImpl}. Everything else is XMI, whatever its encoding and byte order mark.
+     * The stream is reset afterwards.
+     * 
+     * @param in
+     *            The stream supporting mark and reset.
+     * @return true if the stream starts with the binary signature.
+     * @throws IOException
+     *             if the stream cannot be read.
+     */
+    private static boolean isBinary(InputStream in) throws IOException {
+        in.mark(BINARY_SIGNATURE.length);
+        try {
+            for (byte b : BINARY_SIGNATURE) {
+                if (in.read() != (b & 0xFF)) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            in.reset();
+        }
+    }
+
+    /**
+     * Checks whether new files are stored in the binary format.
+     * 
+     * @return the value of the preference {@link #PREF_BINARY_FORMAT}, false if the plug-in is not
+     *         running.
+     */
+    private static boolean isBinaryFormatPreferred() {
+        FMEPlugin plugin = FMEPlugin.getDefault();
+        return plugin != null && plugin.getPreferenceStore().getBoolean(PREF_BINARY_FORMAT);
+    }
+}
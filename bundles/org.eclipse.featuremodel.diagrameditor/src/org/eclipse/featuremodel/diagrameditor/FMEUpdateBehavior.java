@@ -0,0 +1,180 @@
+package org.eclipse.featuremodel.diagrameditor;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.transaction.TransactionalEditingDomain;
+import org.eclipse.emf.workspace.util.WorkspaceSynchronizer;
+import org.eclipse.graphiti.ui.editor.DefaultUpdateBehavior;
+import org.eclipse.graphiti.ui.editor.DiagramEditor;
+
+/**
+ * The update behavior of the Feature Diagram editor. The files written by a background save (see
+ * {@link SaveDiagramJob}) change on disk while the editor may still be dirty, the workspace
+ * synchronizer reports them like changes by another application. Therefore the changed resources
+ * are reported by an own workspace synchronizer, which knows the changed file: every written file
+ * is registered together with its new modification stamp, and the change of a resource is ignored
+ * if its file still has the stamp written by the editor. A registered file is removed when its
+ * change has been reported or the save job has been reconciled, whatever happens first.
+ * 
+ */
+final class FMEUpdateBehavior extends DefaultUpdateBehavior {
+
+    /**
+     * The files written by the editor and not reported yet with their modification stamps.
+     */
+    private final Map<IFile, Long> savedFiles = new HashMap<IFile, Long>();
+
+    /**
+     * The workspace synchronizer reporting the changed resources, <code>null</code> if not started.
+     */
+    private WorkspaceSynchronizer synchronizer;
+
+    /**
+     * Creates an instance of {@link FMEUpdateBehavior}.
+     * 
+     * @param diagramEditor
+     *            The diagram editor.
+     */
+    FMEUpdateBehavior(DiagramEditor diagramEditor) {
+        super(diagramEditor);
+    }
+
+    /**
+     * Starts reporting the changed resources of the given editing domain. Must be called once the
+     * editing domain of the editor has been created.
+     * 
+     * @param editingDomain
+     *            The editing domain of the editor.
+     */
+    void startSynchronizer(TransactionalEditingDomain editingDomain) {
+        if (this.synchronizer == null) {
+            this.synchronizer = new WorkspaceSynchronizer(editingDomain, new SavedFilesDelegate());
+        }
+    }
+
+    /**
+     * Registers a file written by the editor. Must be called before the resource change of the file
+     * is reported, i.e. in the workspace operation writing the file.
+     * 
+     * @param file
+     *            The written file.
+     */
+    synchronized void fileSaved(IFile file) {
+        this.savedFiles.put(file, Long.valueOf(file.getModificationStamp()));
+    }
+
+    /**
+     * Removes the given files written by a save job which has been reconciled.
+     * 
+     * @param files
+     *            The files written by the job.
+     */
+    synchronized void saveReconciled(Collection<IFile> files) {
+        for (IFile file : files) {
+            this.savedFiles.remove(file);
+        }
+    }
+
+    /**
+     * Sets whether a resource of the editor has been changed on disk. The changes are reported by
+     * the own workspace synchronizer once it has been started, so the reports of the default
+     * synchronizer, which cannot tell the changes of the editor from others, are ignored then.
+     * 
+     * @param resourceChanged
+     *            Whether a resource has been changed.
+     */
+    @Override
+    public void setResourceChanged(boolean resourceChanged) {
+        if (resourceChanged && this.synchronizer != null) {
+            return;
+        }
+        super.setResourceChanged(resourceChanged);
+    }
+
+    /**
+     * Disposes the own workspace synchronizer and the behavior.
+     */
+    @Override
+    public void dispose() {
+        if (this.synchronizer != null) {
+            this.synchronizer.dispose();
+            this.synchronizer = null;
+        }
+        super.dispose();
+    }
+
+    /**
+     * Checks whether the file of the given resource has been written by the editor and has not been
+     * changed since. The entry of the file is removed.
+     * 
+     * @param resource
+     *            The changed resource.
+     * @return true if the change has been made by the editor.
+     */
+    private synchronized boolean isSavedFile(Resource resource) {
+        IFile file = WorkspaceSynchronizer.getFile(resource);
+        Long modificationStamp = file == null ? null : this.savedFiles.remove(file);
+        return modificationStamp != null && file.getModificationStamp() == modificationStamp.longValue();
+    }
+
+    /**
+     * Reports the changes of files not written by the editor. Deletions and moves are left to the
+     * default synchronizer.
+     */
+    private final class SavedFilesDelegate implements WorkspaceSynchronizer.Delegate {
+
+        /**
+         * Reports the change of the given resource unless the editor has written its file.
+         * 
+         * @param resource
+         *            The changed resource.
+         * @return always true, the resource is not reloaded here.
+         */
+        @Override
+        public boolean handleResourceChanged(Resource resource) {
+            if (!isSavedFile(resource)) {
+                FMEUpdateBehavior.super.setResourceChanged(true);
+            }
+            return true;
+        }
+
+        /**
+         * Ignores the deletion, the default synchronizer handles it.
+         * 
+         * @param resource
+         *            The deleted resource.
+         * @return always true.
+         */
+        @Override
+        public boolean handleResourceDeleted(Resource resource) {
+            return true;
+        }
+
+        /**
+         * Ignores the move, the default synchronizer handles it.
+         * 
+         * @param resource
+         *            The moved resource.
+         * @param newURI
+         *            The new URI of the resource.
+         * @return always true.
+         */
+        @Override
+        public boolean handleResourceMoved(Resource resource, URI newURI) {
+            return true;
+        }
+
+        /**
+         * Nothing to dispose.
+         */
+        @Override
+        public void dispose() {
+            // nothing to dispose
+        }
+    }
+}
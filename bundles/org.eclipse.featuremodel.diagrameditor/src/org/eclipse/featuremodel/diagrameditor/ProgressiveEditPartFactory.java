@@ -0,0 +1,362 @@
+package org.eclipse.featuremodel.diagrameditor;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.eclipse.draw2d.Figure;
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.PolylineConnection;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.featuremodel.Group;
+import org.eclipse.gef.ConnectionEditPart;
+import org.eclipse.gef.EditPart;
+import org.eclipse.gef.EditPartFactory;
+import org.eclipse.gef.EditPartViewer;
+import org.eclipse.gef.editparts.AbstractConnectionEditPart;
+import org.eclipse.gef.editparts.AbstractGraphicalEditPart;
+import org.eclipse.graphiti.mm.pictograms.Anchor;
+import org.eclipse.graphiti.mm.pictograms.Connection;
+import org.eclipse.graphiti.mm.pictograms.Diagram;
+import org.eclipse.graphiti.mm.pictograms.PictogramElement;
+import org.eclipse.graphiti.mm.pictograms.PictogramLink;
+import org.eclipse.graphiti.mm.pictograms.Shape;
+import org.eclipse.swt.widgets.Control;
+
+/**
+ * An edit part factory rendering a large Feature Diagram progressively. When the diagram is opened
+ * only the top levels of the Feature tree (the root and as many following levels as fit into
+ * {@link #FIRST_PAINT_LIMIT} pictogram elements) get their edit parts and figures, the pictogram
+ * elements of the deeper levels get invisible placeholders. The placeholders are replaced by the
+ * real edit parts level by level in breadth-first order, in chunks of {@link #RELEASE_CHUNK_SIZE}
+ * pictogram elements, each chunk in its own UI runnable, so the editor is painted and usable while
+ * the deeper levels are filled in.
+ * <p>
+ * The pictogram model is not changed, the placeholders exist only in the viewer. They are not
+ * registered in the edit part registry of the viewer, so looking up the edit part of a pending
+ * pictogram element (e.g. for selection or direct editing) finds no edit part instead of an
+ * invisible placeholder.
+ * </p>
+ * 
+ */
+final class ProgressiveEditPartFactory implements EditPartFactory {
+
+    /**
+     * The maximum number of pictogram elements rendered at the first paint. The first level is
+     * always rendered.
+     */
+    private static final int FIRST_PAINT_LIMIT = 300;
+
+    /**
+     * The number of pictogram elements whose placeholders are replaced by one UI runnable.
+     */
+    private static final int RELEASE_CHUNK_SIZE = 500;
+
+    /**
+     * The model of released placeholders, so the viewer does no longer match them with their
+     * pictogram elements and creates the real edit parts instead.
+     */
+    private static final Object RELEASED = new Object();
+
+    /**
+     * The factory creating the real edit parts.
+     */
+    private final EditPartFactory delegate;
+
+    /**
+     * The pictogram elements still rendered as placeholders.
+     */
+    private final Set<PictogramElement> pending = new HashSet<PictogramElement>();
+
+    /**
+     * The pending pictogram elements in the order of release.
+     */
+    private final Queue<PictogramElement> releaseQueue = new ArrayDeque<PictogramElement>();
+
+    /**
+     * The created placeholders by pictogram element.
+     */
+    private final Map<PictogramElement, EditPart> placeholders = new HashMap<PictogramElement, EditPart>();
+
+    /**
+     * Creates an instance of {@link ProgressiveEditPartFactory}.
+     * 
+     * @param delegate
+     *            The factory creating the real edit parts.
+     */
+    ProgressiveEditPartFactory(EditPartFactory delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Creates a placeholder for pending pictogram elements, delegates to the real factory
+     * otherwise.
+     * 
+     * @param context
+     *            The context edit part.
+     * @param model
+     *            The model of the edit part.
+     * @return The edit part.
+     */
+    @Override
+    public EditPart createEditPart(EditPart context, Object model) {
+        if (!this.pending.contains(model)) {
+            return this.delegate.createEditPart(context, model);
+        }
+
+        // the placeholders are not registered, so both ends of a connection ask for it
+        EditPart existing = this.placeholders.get(model);
+        if (existing instanceof ConnectionEditPart) {
+            return existing;
+        }
+        EditPart placeholder = model instanceof Connection ? new ConnectionPlaceholder() : new ShapePlaceholder();
+        placeholder.setModel(model);
+        this.placeholders.put((PictogramElement) model, placeholder);
+        return placeholder;
+    }
+
+    /**
+     * Determines the pictogram elements of the given diagram rendered as placeholders at first.
+     * Must be called before the diagram is set as contents of the viewer.
+     * 
+     * @param diagram
+     *            The diagram to open.
+     */
+    void defer(Diagram diagram) {
+        // the shapes and connections by level of the Feature tree
+        SortedMap<Integer, List<PictogramElement>> levels = new TreeMap<Integer, List<PictogramElement>>();
+        for (Shape shape : diagram.getChildren()) {
+            addToLevel(levels, shape, getLevel(shape));
+        }
+        for (Connection connection : diagram.getConnections()) {
+            Anchor end = connection.getEnd();
+            addToLevel(levels, connection, end == null ? 1 : getLevel(end.getParent()));
+        }
+
+        int rendered = 0;
+        for (List<PictogramElement> level : levels.values()) {
+            if (this.releaseQueue.isEmpty() && (rendered == 0 || rendered + level.size() <= FIRST_PAINT_LIMIT)) {
+                rendered += level.size();
+            } else {
+                this.releaseQueue.addAll(level);
+            }
+        }
+        this.pending.addAll(this.releaseQueue);
+    }
+
+    /**
+     * Schedules the replacement of the placeholders in the UI thread. Must be called after the
+     * diagram has been set as contents of the viewer.
+     * 
+     * @param viewer
+     *            The viewer showing the diagram.
+     */
+    void scheduleRelease(final EditPartViewer viewer) {
+        if (this.releaseQueue.isEmpty()) {
+            return;
+        }
+
+        viewer.getControl().getDisplay().asyncExec(new Runnable() {
+            @Override
+            public void run() {
+                releaseNext(viewer);
+            }
+        });
+    }
+
+    /**
+     * Replaces the placeholders of the next chunk of pending pictogram elements and schedules the
+     * next chunk.
+     * 
+     * @param viewer
+     *            The viewer showing the diagram.
+     */
+    private void releaseNext(EditPartViewer viewer) {
+        Control control = viewer.getControl();
+        if (control == null || control.isDisposed() || viewer.getContents() == null) {
+            // the editor has been closed in the meantime
+            this.releaseQueue.clear();
+            this.pending.clear();
+            this.placeholders.clear();
+            return;
+        }
+
+        Set<EditPart> connectionSources = new LinkedHashSet<EditPart>();
+        for (int i = 0; i < RELEASE_CHUNK_SIZE && !this.releaseQueue.isEmpty(); i++) {
+            PictogramElement pe = this.releaseQueue.poll();
+            this.pending.remove(pe);
+            EditPart placeholder = this.placeholders.remove(pe);
+            if (placeholder == null) {
+                continue;
+            }
+
+            placeholder.setModel(RELEASED);
+            if (placeholder instanceof ConnectionEditPart) {
+                EditPart source = ((ConnectionEditPart) placeholder).getSource();
+                if (source != null) {
+                    connectionSources.add(source);
+                }
+            }
+        }
+
+        // create the real shapes, the real connections are created by their end shapes
+        viewer.getContents().refresh();
+        for (EditPart source : connectionSources) {
+            if (source.isActive()) {
+                source.refresh();
+            }
+        }
+
+        scheduleRelease(viewer);
+    }
+
+    /**
+     * Adds the pictogram element to the given level.
+     * 
+     * @param levels
+     *            The pictogram elements by level.
+     * @param pe
+     *            The pictogram element.
+     * @param level
+     *            The level of the pictogram element.
+     */
+    private static void addToLevel(SortedMap<Integer, List<PictogramElement>> levels, PictogramElement pe,
+            int level) {
+        List<PictogramElement> list = levels.get(level);
+        if (list == null) {
+            list = new ArrayList<PictogramElement>();
+            levels.put(level, list);
+        }
+        list.add(pe);
+    }
+
+    /**
+     * Gets the level of the Feature tree the given pictogram element belongs to. The root Feature
+     * is on level 1, a Group is on the level of its child Features. Pictogram elements not linked
+     * with a Feature or a Group are on level 1.
+     * 
+     * @param pe
+     *            The pictogram element.
+     * @return The level.
+     */
+    private static int getLevel(PictogramElement pe) {
+        PictogramLink link = pe == null ? null : pe.getLink();
+        if (link == null || link.getBusinessObjects().isEmpty()) {
+            return 1;
+        }
+
+        int level = 1;
+        for (EObject o = link.getBusinessObjects().get(0); o != null; o = o.eContainer()) {
+            if (o instanceof Group) {
+                level++;
+            }
+        }
+        return level;
+    }
+
+    /**
+     * The invisible placeholder of a pending shape.
+     */
+    private static final class ShapePlaceholder extends AbstractGraphicalEditPart {
+
+        /**
+         * Creates an invisible figure.
+         * 
+         * @return The figure.
+         */
+        @Override
+        protected IFigure createFigure() {
+            IFigure figure = new Figure();
+            figure.setVisible(false);
+            return figure;
+        }
+
+        /**
+         * The placeholder has no edit policies.
+         */
+        @Override
+        protected void createEditPolicies() {
+        }
+
+        /**
+         * The placeholder can not be selected.
+         * 
+         * @return false
+         */
+        @Override
+        public boolean isSelectable() {
+            return false;
+        }
+
+        /**
+         * The placeholder is not registered under its pictogram element.
+         */
+        @Override
+        protected void registerModel() {
+        }
+
+        /**
+         * The placeholder is not registered under its pictogram element.
+         */
+        @Override
+        protected void unregisterModel() {
+        }
+    }
+
+    /**
+     * The invisible placeholder of a pending connection.
+     */
+    private static final class ConnectionPlaceholder extends AbstractConnectionEditPart {
+
+        /**
+         * Creates an invisible connection figure.
+         * 
+         * @return The figure.
+         */
+        @Override
+        protected IFigure createFigure() {
+            PolylineConnection connection = new PolylineConnection();
+            connection.setVisible(false);
+            return connection;
+        }
+
+        /**
+         * The placeholder has no edit policies.
+         */
+        @Override
+        protected void createEditPolicies() {
+        }
+
+        /**
+         * The placeholder can not be selected.
+         * 
+         * @return false
+         */
+        @Override
+        public boolean isSelectable() {
+            return false;
+        }
+
+        /**
+         * The placeholder is not registered under its pictogram element.
+         */
+        @Override
+        protected void registerModel() {
+        }
+
+        /**
+         * The placeholder is not registered under its pictogram element.
+         */
+        @Override
+        protected void unregisterModel() {
+        }
+    }
+}
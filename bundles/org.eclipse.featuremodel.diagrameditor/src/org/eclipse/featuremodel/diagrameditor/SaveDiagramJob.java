@@ -0,0 +1,333 @@
+package org.eclipse.featuremodel.diagrameditor;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResourceRuleFactory;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.MultiStatus;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.MultiRule;
+import org.eclipse.emf.common.command.BasicCommandStack;
+import org.eclipse.emf.common.command.Command;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.InternalEObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.emf.ecore.util.EcoreUtil.Copier;
+import org.eclipse.emf.ecore.xmi.XMLResource;
+import org.eclipse.emf.ecore.xmi.impl.XMIResourceImpl;
+import org.eclipse.emf.ecore.xmi.impl.XMLResourceImpl;
+import org.eclipse.emf.transaction.RunnableWithResult;
+import org.eclipse.emf.transaction.TransactionalEditingDomain;
+
+/**
+ * Saves the resources of a Feature Diagram editor in background. The modified resources are copied
+ * in one read-exclusive transaction (see {@link #snapshot(TransactionalEditingDomain, FMEUpdateBehavior)}),
+ * the copies are serialized and written by the job, so the editor can be edited meanwhile. The
+ * written files are registered with the update behavior of the editor, so their changes are not
+ * handled as changes by another application. When the job has finished, {@link #reconcile()} marks
+ * the editor as saved if it has not been changed since the snapshot.
+ * 
+ */
+public class SaveDiagramJob extends Job {
+
+    /**
+     * The editing domain of the saved resources.
+     */
+    private final TransactionalEditingDomain editingDomain;
+
+    /**
+     * The update behavior of the editor, notified about the written files.
+     */
+    private final FMEUpdateBehavior updateBehavior;
+
+    /**
+     * The copies of the saved resources by original resource.
+     */
+    private final Map<Resource, Resource> snapshots;
+
+    /**
+     * The command on top of the undo stack at the time of the snapshot.
+     */
+    private final Command savedCommand;
+
+    /**
+     * The files written by the job.
+     */
+    private final List<IFile> writtenFiles = new ArrayList<IFile>();
+
+    /**
+     * Creates an instance of {@link SaveDiagramJob}.
+     * 
+     * @param editingDomain
+     *            The editing domain of the saved resources.
+     * @param updateBehavior
+     *            The update behavior of the editor, notified about the written files.
+     * @param snapshots
+     *            The copies of the saved resources by original resource.
+     * @param savedCommand
+     *            The command on top of the undo stack at the time of the snapshot.
+     */
+    private SaveDiagramJob(TransactionalEditingDomain editingDomain, FMEUpdateBehavior updateBehavior,
+            Map<Resource, Resource> snapshots, Command savedCommand) {
+        super("Save Feature Diagram");
+        this.editingDomain = editingDomain;
+        this.updateBehavior = updateBehavior;
+        this.snapshots = snapshots;
+        this.savedCommand = savedCommand;
+        setRule(createRule(snapshots.keySet()));
+    }
+
+    /**
+     * Takes a snapshot of the modified resources of the given editing domain and creates the job
+     * saving it. The resources are copied together, so the references between them point to the
+     * copies. References to objects of other resources are replaced by proxies, so the job does not
+     * access the resource set of the editor.
+     * 
+     * @param editingDomain
+     *            The editing domain.
+     * @param updateBehavior
+     *            The update behavior of the editor, notified about the written files.
+     * @return The job, not scheduled yet.
+     * @throws InterruptedException
+     *             if the thread has been interrupted while waiting for the transaction.
+     */
+    public static SaveDiagramJob snapshot(final TransactionalEditingDomain editingDomain,
+            FMEUpdateBehavior updateBehavior) throws InterruptedException {
+        @SuppressWarnings("unchecked")
+        Map<Resource, Resource> snapshots = (Map<Resource, Resource>) editingDomain
+                .runExclusive(new RunnableWithResult.Impl<Map<Resource, Resource>>() {
+                    @Override
+                    public void run() {
+                        setResult(copyResources(editingDomain));
+                    }
+                });
+        return new SaveDiagramJob(editingDomain, updateBehavior, snapshots, editingDomain.getCommandStack()
+                .getUndoCommand());
+    }
+
+    /**
+     * Serializes and writes the copies of the resources in one workspace operation, the resource
+     * changes are reported after all files have been written and registered with the update behavior.
+     * 
+     * @param monitor
+     *            The progress monitor.
+     * @return The status of the job, an error status if a resource could not be saved.
+     */
+    @Override
+    protected IStatus run(IProgressMonitor monitor) {
+        final MultiStatus status = new MultiStatus(FMEPlugin.PLUGIN_ID, IStatus.OK,
+                "Unable to save Feature Diagram", null);
+        try {
+            ResourcesPlugin.getWorkspace().run(new IWorkspaceRunnable() {
+                @Override
+                public void run(IProgressMonitor monitor) {
+                    save(status, monitor);
+                }
+            }, getRule(), IWorkspace.AVOID_UPDATE, monitor);
+        } catch (CoreException e) {
+            status.add(e.getStatus());
+        }
+        return status;
+    }
+
+    /**
+     * Serializes and writes the copies of the resources and registers the written files.
+     * 
+     * @param status
+     *            The status to add the failures to.
+     * @param monitor
+     *            The progress monitor.
+     */
+    private void save(MultiStatus status, IProgressMonitor monitor) {
+        monitor.beginTask("Saving Feature Diagram", this.snapshots.size());
+        try {
+            for (Map.Entry<Resource, Resource> e : this.snapshots.entrySet()) {
+                Map<Object, Object> saveOptions = new HashMap<Object, Object>(FMEDiagramEditorUtil.getSaveOptions());
+                if (e.getKey() instanceof FMEResourceImpl) {
+                    // keep the format of the original resource
+                    saveOptions.put(FMEResourceImpl.OPTION_BINARY_FORMAT,
+                            Boolean.valueOf(((FMEResourceImpl) e.getKey()).isBinaryFormat()));
+                }
+                IFile file = getFile(e.getValue());
+                long modificationStamp = file.getModificationStamp();
+                try {
+                    e.getValue().save(saveOptions);
+                } catch (IOException exception) {
+                    status.add(new Status(IStatus.ERROR, FMEPlugin.PLUGIN_ID, "Unable to save "
+                            + e.getValue().getURI(), exception));
+                }
+                // an unchanged content is not written
+                if (file.getModificationStamp() != modificationStamp) {
+                    this.updateBehavior.fileSaved(file);
+                    this.writtenFiles.add(file);
+                }
+                monitor.worked(1);
+            }
+        } finally {
+            monitor.done();
+        }
+    }
+
+    /**
+     * Marks the saved resources as saved if they have not been changed since the snapshot and
+     * removes the written files from the update behavior. Must be called in the UI thread after the
+     * job has finished successfully.
+     * 
+     * @return true if the editor is not dirty any more.
+     */
+    public boolean reconcile() {
+        this.updateBehavior.saveReconciled(this.writtenFiles);
+        if (this.editingDomain.getCommandStack().getUndoCommand() != this.savedCommand) {
+            // changed meanwhile, the editor stays dirty
+            return false;
+        }
+
+        for (Resource resource : this.snapshots.keySet()) {
+            if (resource.isTrackingModification()) {
+                resource.setModified(false);
+            }
+        }
+        ((BasicCommandStack) this.editingDomain.getCommandStack()).saveIsDone();
+        return true;
+    }
+
+    /**
+     * Copies the modified, writable workspace resources of the given editing domain. References to
+     * objects of the other resources are replaced by proxies (see {@link SnapshotCopier}).
+     * 
+     * @param editingDomain
+     *            The editing domain.
+     * @return The copies by original resource.
+     */
+    private static Map<Resource, Resource> copyResources(TransactionalEditingDomain editingDomain) {
+        List<Resource> originals = new ArrayList<Resource>();
+        for (Resource resource : editingDomain.getResourceSet().getResources()) {
+            if (resource.isLoaded() && resource.getURI().isPlatformResource() && !editingDomain.isReadOnly(resource)
+                    && (!resource.isTrackingModification() || resource.isModified())) {
+                originals.add(resource);
+            }
+        }
+
+        Copier copier = new SnapshotCopier();
+        Map<Resource, Collection<EObject>> contents = new LinkedHashMap<Resource, Collection<EObject>>();
+        for (Resource original : originals) {
+            contents.put(original, copier.copyAll(original.getContents()));
+        }
+        copier.copyReferences();
+
+        ResourceSet snapshotSet = new ResourceSetImpl();
+        Map<Resource, Resource> snapshots = new LinkedHashMap<Resource, Resource>();
+        for (Resource original : originals) {
+            Resource copy = snapshotSet.createResource(original.getURI());
+            if (copy == null) {
+                copy = new XMIResourceImpl(original.getURI());
+                snapshotSet.getResources().add(copy);
+            }
+            copy.getContents().addAll(contents.get(original));
+            // keep the XMI ids, so the references from other files stay valid
+            if (original instanceof XMLResourceImpl && copy instanceof XMLResource) {
+                for (Map.Entry<EObject, String> id : ((XMLResourceImpl) original).getEObjectToIDMap().entrySet()) {
+                    if (copier.containsKey(id.getKey())) {
+                        ((XMLResource) copy).setID(copier.get(id.getKey()), id.getValue());
+                    }
+                }
+            }
+            snapshots.put(original, copy);
+        }
+        return snapshots;
+    }
+
+    /**
+     * Creates the scheduling rule for modifying the files of the given resources, so two jobs
+     * saving the same files run one after the other.
+     * 
+     * @param resources
+     *            The resources.
+     * @return The rule or <code>null</code> if no resources are given.
+     */
+    private static ISchedulingRule createRule(Collection<Resource> resources) {
+        IResourceRuleFactory ruleFactory = ResourcesPlugin.getWorkspace().getRuleFactory();
+        ISchedulingRule rule = null;
+        for (Resource resource : resources) {
+            IFile file = getFile(resource);
+            rule = MultiRule.combine(rule, file.exists() ? ruleFactory.modifyRule(file) : ruleFactory
+                    .createRule(file));
+        }
+        return rule;
+    }
+
+    /**
+     * Gets the workspace file of the given resource.
+     * 
+     * @param resource
+     *            The resource with a platform resource URI.
+     * @return The file.
+     */
+    private static IFile getFile(Resource resource) {
+        return ResourcesPlugin.getWorkspace().getRoot().getFile(new Path(resource.getURI().toPlatformString(true)));
+    }
+
+    /**
+     * A copier replacing the references to objects which are not copied by proxies with the URIs of
+     * the objects, so the copies do not reference the original objects. Proxies are not resolved.
+     */
+    private static final class SnapshotCopier extends Copier {
+
+        /** the serial version UID. */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The proxies by original object.
+         */
+        private final Map<EObject, EObject> proxies = new HashMap<EObject, EObject>();
+
+        /**
+         * Creates an instance of {@link SnapshotCopier}.
+         */
+        private SnapshotCopier() {
+            super(false);
+        }
+
+        /**
+         * Gets the copy of the given object or a proxy for an object which is not copied.
+         * 
+         * @param key
+         *            The original object.
+         * @return The copy or the proxy.
+         */
+        @Override
+        public EObject get(Object key) {
+            EObject copy = super.get(key);
+            if (copy != null || !(key instanceof EObject)) {
+                return copy;
+            }
+
+            EObject original = (EObject) key;
+            EObject proxy = this.proxies.get(original);
+            if (proxy == null) {
+                proxy = EcoreUtil.create(original.eClass());
+                ((InternalEObject) proxy).eSetProxyURI(EcoreUtil.getURI(original));
+                this.proxies.put(original, proxy);
+            }
+            return proxy;
+        }
+    }
+}
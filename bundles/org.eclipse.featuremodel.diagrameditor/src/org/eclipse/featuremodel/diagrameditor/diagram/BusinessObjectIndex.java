@@ -0,0 +1,338 @@
+package org.eclipse.featuremodel.diagrameditor.diagram;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.graphiti.mm.pictograms.Diagram;
+import org.eclipse.graphiti.mm.pictograms.PictogramElement;
+import org.eclipse.graphiti.mm.pictograms.PictogramLink;
+import org.eclipse.graphiti.mm.pictograms.PictogramsPackage;
+
+/**
+ * {@link BusinessObjectIndex} maps business objects (e.g. Features and Groups) to the pictogram
+ * elements linked with them. The index is built once from the pictogram links of a diagram and then
+ * kept up to date by listening to changes of the links, so a lookup does not need to scan all links
+ * of the diagram. The index also listens to the resources of the business objects: when one of them
+ * is unloaded or loaded (e.g. the Feature Model is reloaded after a change on disk), the indexed
+ * objects are outdated and the index is rebuilt from the links on the next lookup.
+ * 
+ */
+public final class BusinessObjectIndex extends AdapterImpl {
+
+    /**
+     * The diagram the index belongs to.
+     */
+    private final Diagram diagram;
+
+    /**
+     * The pictogram elements of every business object in the order the links were created.
+     */
+    private final Map<Object, List<PictogramElement>> pictogramElements = //
+    new IdentityHashMap<Object, List<PictogramElement>>();
+
+    /**
+     * The pictogram element and business objects every indexed link has contributed to the index.
+     */
+    private final Map<PictogramLink, IndexedLink> indexedLinks = new IdentityHashMap<PictogramLink, IndexedLink>();
+
+    /**
+     * The resources of the indexed business objects, except the resource of the diagram.
+     */
+    private final Map<Resource, Boolean> watchedResources = new IdentityHashMap<Resource, Boolean>();
+
+    /**
+     * Whether the index is currently updating itself (e.g. resolving proxies of a link).
+     */
+    private boolean updating;
+
+    /**
+     * Whether a resource of the indexed business objects has been unloaded or loaded since the
+     * index has been built.
+     */
+    private boolean outdated;
+
+    /**
+     * Creates an instance of {@link BusinessObjectIndex}.
+     * 
+     * @param diagram
+     *            the diagram to index
+     */
+    private BusinessObjectIndex(Diagram diagram) {
+        this.diagram = diagram;
+    }
+
+    /**
+     * Gets the index of the given diagram. The index is created and attached to the diagram on first
+     * access.
+     * 
+     * @param diagram
+     *            the diagram
+     * @return the index of the diagram
+     */
+    public static BusinessObjectIndex getIndex(Diagram diagram) {
+        BusinessObjectIndex index = (BusinessObjectIndex) EcoreUtil.getExistingAdapter(diagram,
+                BusinessObjectIndex.class);
+        if (index == null) {
+            index = new BusinessObjectIndex(diagram);
+            diagram.eAdapters().add(index);
+            for (PictogramLink link : diagram.getPictogramLinks()) {
+                index.addLink(link);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Gets all pictogram elements linked with the given business object.
+     * 
+     * @param businessObject
+     *            the business object
+     * @return the pictogram elements, an empty list if the business object is not linked
+     */
+    public List<PictogramElement> getPictogramElements(Object businessObject) {
+        rebuildIfOutdated();
+        List<PictogramElement> result = this.pictogramElements.get(businessObject);
+        if (result == null) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Gets the first active pictogram element linked with the given business object.
+     * 
+     * @param businessObject
+     *            the business object
+     * @return the active pictogram element or <code>null</code> if not exists
+     */
+    public PictogramElement getActivePictogramElement(Object businessObject) {
+        rebuildIfOutdated();
+        List<PictogramElement> pes = this.pictogramElements.get(businessObject);
+        if (pes != null) {
+            for (PictogramElement pe : pes) {
+                if (pe.isActive()) {
+                    return pe;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether this adapter is of the given type.
+     * 
+     * @param type
+     *            the type
+     * @return true if the type is {@link BusinessObjectIndex}
+     */
+    @Override
+    public boolean isAdapterForType(Object type) {
+        return type == BusinessObjectIndex.class;
+    }
+
+    /**
+     * Updates the index according to the changes made to the pictogram links of the diagram.
+     * 
+     * @param notification
+     *            the notification
+     */
+    @Override
+    public void notifyChanged(Notification notification) {
+        if (this.updating || notification.getEventType() == Notification.REMOVING_ADAPTER) {
+            return;
+        }
+
+        if (notification.getNotifier() instanceof Resource) {
+            if (notification.getFeatureID(Resource.class) == Resource.RESOURCE__IS_LOADED) {
+                this.outdated = true;
+            }
+            return;
+        }
+
+        Object feature = notification.getFeature();
+        if (notification.getNotifier() == this.diagram
+                && feature == PictogramsPackage.Literals.DIAGRAM__PICTOGRAM_LINKS) {
+            switch (notification.getEventType()) {
+            case Notification.ADD:
+                addLink((PictogramLink) notification.getNewValue());
+                break;
+            case Notification.ADD_MANY:
+                for (Object link : (Collection<?>) notification.getNewValue()) {
+                    addLink((PictogramLink) link);
+                }
+                break;
+            case Notification.REMOVE:
+                removeLink((PictogramLink) notification.getOldValue());
+                break;
+            case Notification.REMOVE_MANY:
+                for (Object link : (Collection<?>) notification.getOldValue()) {
+                    removeLink((PictogramLink) link);
+                }
+                break;
+            case Notification.SET:
+                if (notification.getOldValue() != null) {
+                    removeLink((PictogramLink) notification.getOldValue());
+                }
+                if (notification.getNewValue() != null) {
+                    addLink((PictogramLink) notification.getNewValue());
+                }
+                break;
+            default:
+                break;
+            }
+        } else if (notification.getNotifier() instanceof PictogramLink
+                && (feature == PictogramsPackage.Literals.PICTOGRAM_LINK__BUSINESS_OBJECTS //
+                || feature == PictogramsPackage.Literals.PICTOGRAM_LINK__PICTOGRAM_ELEMENT)) {
+            // re-index the changed link
+            PictogramLink link = (PictogramLink) notification.getNotifier();
+            removeLink(link);
+            addLink(link);
+        }
+    }
+
+    /**
+     * Adds the pictogram element and business objects of the given link to the index.
+     * 
+     * @param link
+     *            the link
+     */
+    private void addLink(PictogramLink link) {
+        if (!link.eAdapters().contains(this)) {
+            link.eAdapters().add(this);
+        }
+
+        // resolving proxies of the link notifies this adapter, ignore these notifications
+        this.updating = true;
+        Object[] businessObjects;
+        try {
+            List<?> bos = link.getBusinessObjects();
+            businessObjects = new Object[bos.size()];
+            for (int i = 0; i < businessObjects.length; i++) {
+                businessObjects[i] = bos.get(i);
+            }
+        } finally {
+            this.updating = false;
+        }
+        PictogramElement pe = link.getPictogramElement();
+        this.indexedLinks.put(link, new IndexedLink(pe, businessObjects));
+
+        for (Object bo : businessObjects) {
+            watchResource(bo);
+        }
+        if (pe != null) {
+            for (Object bo : businessObjects) {
+                List<PictogramElement> pes = this.pictogramElements.get(bo);
+                if (pes == null) {
+                    pes = new ArrayList<PictogramElement>(2);
+                    this.pictogramElements.put(bo, pes);
+                }
+                pes.add(pe);
+            }
+        }
+    }
+
+    /**
+     * Listens to the resource of the given business object, unless it is the resource of the
+     * diagram.
+     * 
+     * @param businessObject
+     *            the business object
+     */
+    private void watchResource(Object businessObject) {
+        if (!(businessObject instanceof EObject)) {
+            return;
+        }
+        Resource resource = ((EObject) businessObject).eResource();
+        if (resource != null && resource != this.diagram.eResource() && !this.watchedResources.containsKey(resource)) {
+            this.watchedResources.put(resource, Boolean.TRUE);
+            resource.eAdapters().add(this);
+        }
+    }
+
+    /**
+     * Rebuilds the index from the pictogram links of the diagram if a resource of the indexed
+     * business objects has been unloaded or loaded. The links are read again, so their proxies are
+     * resolved to the current business objects.
+     */
+    private void rebuildIfOutdated() {
+        if (!this.outdated) {
+            return;
+        }
+        this.outdated = false;
+
+        for (Resource resource : this.watchedResources.keySet()) {
+            resource.eAdapters().remove(this);
+        }
+        this.watchedResources.clear();
+        this.indexedLinks.clear();
+        this.pictogramElements.clear();
+        for (PictogramLink link : this.diagram.getPictogramLinks()) {
+            addLink(link);
+        }
+    }
+
+    /**
+     * Removes everything the given link has contributed to the index.
+     * 
+     * @param link
+     *            the link
+     */
+    private void removeLink(PictogramLink link) {
+        if (link.eContainer() != this.diagram) {
+            link.eAdapters().remove(this);
+        }
+
+        IndexedLink indexedLink = this.indexedLinks.remove(link);
+        if (indexedLink == null || indexedLink.pictogramElement == null) {
+            return;
+        }
+
+        for (Object bo : indexedLink.businessObjects) {
+            List<PictogramElement> pes = this.pictogramElements.get(bo);
+            if (pes != null) {
+                pes.remove(indexedLink.pictogramElement);
+                if (pes.isEmpty()) {
+                    this.pictogramElements.remove(bo);
+                }
+            }
+        }
+    }
+
+    /**
+     * The contribution of a single pictogram link to the index.
+     */
+    private static final class IndexedLink {
+
+        /**
+         * The linked pictogram element at the time of indexing.
+         */
+        private final PictogramElement pictogramElement;
+
+        /**
+         * The linked business objects at the time of indexing.
+         */
+        private final Object[] businessObjects;
+
+        /**
+         * Creates an instance of {@link IndexedLink}.
+         * 
+         * @param pictogramElement
+         *            the linked pictogram element
+         * @param businessObjects
+         *            the linked business objects
+         */
+        private IndexedLink(PictogramElement pictogramElement, Object[] businessObjects) {
+            this.pictogramElement = pictogramElement;
+            this.businessObjects = businessObjects;
+        }
+    }
+}
@@ -1,40 +1,40 @@
-package org.eclipse.featuremodel.diagrameditor.diagram;
-
-import org.eclipse.graphiti.dt.AbstractDiagramTypeProvider;
-import org.eclipse.graphiti.tb.IToolBehaviorProvider;
-
-/**
- * Defines the diagram type provider.
- * 
- */
-public class FMEDiagramTypeProvider extends AbstractDiagramTypeProvider {
-
-    /**
-     * Array of all registered tool behavior providers.
-     */
-    private IToolBehaviorProvider[] toolBehaviorProviders = null;
-
-    /**
-     * Creates an instance of {@link FMEDiagramTypeProvider}.
-     */
-    public FMEDiagramTypeProvider() {
-        super();
-
-        // The diagram type provider needs to know its feature provider, so the
-        // Graphiti framework can ask which operations are supported.
-        setFeatureProvider(new FMEFeatureProvider(this));
-    }
-
-    /**
-     * Returns all available tool behavior providers.
-     * 
-     * @return An array of all registered tool behavior providers
-     */
-    @Override
-    public IToolBehaviorProvider[] getAvailableToolBehaviorProviders() {
-        if (this.toolBehaviorProviders == null) {
-            this.toolBehaviorProviders = new IToolBehaviorProvider[] { new FMEToolBehaviourProvider(this) };
-        }
-        return this.toolBehaviorProviders;
-    }
-}
+package org.eclipse.featuremodel.diagrameditor.diagram;
+
+import org.eclipse.graphiti.dt.AbstractDiagramTypeProvider;
+import org.eclipse.graphiti.tb.IToolBehaviorProvider;
+
+/**
+ * Defines the diagram type provider.
+ * 
+ */
+public class FMEDiagramTypeProvider extends AbstractDiagramTypeProvider {
+
+    /**
+     * Array of all registered tool behavior providers.
+     */
+    private IToolBehaviorProvider[] toolBehaviorProviders = null;
+
+    /**
+     * Creates an instance of {@link FMEDiagramTypeProvider}.
+     */
+    public FMEDiagramTypeProvider() {
+        super();
+
+        // The diagram type provider needs to know its feature provider, so the
+        // Graphiti framework can ask which operations are supported.
+        setFeatureProvider(new FMEFeatureProvider(this));
+    }
+
+    /**
+     * Returns all available tool behavior providers.
+     * 
+     * @return An array of all registered tool behavior providers
+     */
+    @Override
+    public IToolBehaviorProvider[] getAvailableToolBehaviorProviders() {
+        if (this.toolBehaviorProviders == null) {
+            this.toolBehaviorProviders = new IToolBehaviorProvider[] { new FMEToolBehaviourProvider(this) };
+        }
+        return this.toolBehaviorProviders;
+    }
+}
@@ -1,9 +1,9 @@
-/**
- * The package of the Feature Model tree editor diagram.
- * The classes in this package provides functions used by the Graphiti framework
- * to find out which operations are supported by this editor in
- * the current situation.
- * 
- */
-package org.eclipse.featuremodel.diagrameditor.diagram;
-
+/**
+ * The package of the Feature Model tree editor diagram.
+ * The classes in this package provides functions used by the Graphiti framework
+ * to find out which operations are supported by this editor in
+ * the current situation.
+ * 
+ */
+package org.eclipse.featuremodel.diagrameditor.diagram;
+
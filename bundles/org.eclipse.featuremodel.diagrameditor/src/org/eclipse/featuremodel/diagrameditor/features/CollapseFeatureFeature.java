@@ -1,195 +1,326 @@
-package org.eclipse.featuremodel.diagrameditor.features;
-
-import org.eclipse.featuremodel.Feature;
-import org.eclipse.featuremodel.Group;
-import org.eclipse.featuremodel.diagrameditor.utilities.Properties;
-import org.eclipse.graphiti.features.IFeatureProvider;
-import org.eclipse.graphiti.features.context.IContext;
-import org.eclipse.graphiti.features.context.ICustomContext;
-import org.eclipse.graphiti.features.custom.AbstractCustomFeature;
-import org.eclipse.graphiti.mm.pictograms.PictogramElement;
-import org.eclipse.graphiti.services.Graphiti;
-
-/**
- * Feature handle collapsing of Feature Diagram elements. A Features with child Features can be
- * collapsed (see {@link CollapseFeatureFeature}) to hide the child elements and expanded (see
- * {@link ExpandFeatureFeature}) to show this.
- * 
- */
-public class CollapseFeatureFeature extends AbstractCustomFeature {
-
-    /**
-     * Creates an instance of {@link CollapseFeatureFeature}.
-     * 
-     * @param fp
-     *            The feature provider.
-     */
-    public CollapseFeatureFeature(IFeatureProvider fp) {
-        super(fp);
-    }
-
-    /**
-     * Gets the name of this function feature.
-     * 
-     * @return The name.
-     */
-    @Override
-    public String getName() {
-        return "Collapse";
-    }
-
-    /**
-     * Gets the description of this function feature.
-     * 
-     * @return The description.
-     */
-    @Override
-    public String getDescription() {
-        return "Collapse child Features";
-    }
-
-    /**
-     * Decides if the collapse feature is available with the given context. This implementation
-     * returns <code>true</code> if the selected pictogram element represents a Feature.
-     * 
-     * @param context
-     *            the context.
-     * @return true if collapse feature is available, false if not
-     */
-    @Override
-    public boolean isAvailable(IContext context) {
-        if (context instanceof ICustomContext) {
-            PictogramElement[] pes = ((ICustomContext) context).getPictogramElements();
-            if (pes != null && pes.length == 1) {
-                Object bo = getBusinessObjectForPictogramElement(pes[0]);
-                if (bo instanceof Feature) {
-                    return true;
-                }
-            }
-        }
-        return false;
-    }
-
-    /**
-     * Checks whether the current pictogram element of the given context can be collapsed. This
-     * implementation returns <code>true</code> if the selected pictogram element represents a
-     * Feature, it has child Features and is of the type
-     * {@link Properties#PROP_VAL_CONTAINER_TYPE_EXPANDED}.
-     * 
-     * @param context
-     *            The context.
-     * @return true if the selected pictogram element represents a Feature, it has child Features
-     *         and is of the type {@link Properties#PROP_VAL_CONTAINER_TYPE_EXPANDED}.
-     */
-    @Override
-    public boolean canExecute(ICustomContext context) {
-        if (context instanceof ICustomContext) {
-            PictogramElement[] pes = ((ICustomContext) context).getPictogramElements();
-            // allow to collapse Feature if exactly one pictogram element is selected
-            if (pes != null && pes.length == 1) {
-                Object bo = getBusinessObjectForPictogramElement(pes[0]);
-                // allow to collapse only Feature objects with children
-                if (bo instanceof Feature && !((Feature) bo).getChildren().isEmpty()) {
-                    String value = Graphiti.getPeService().getPropertyValue(pes[0], Properties.PROP_KEY_CONTAINER_TYPE);
-                    // allow to collapse only Feature of type expanded
-                    if (value != null && Properties.PROP_VAL_CONTAINER_TYPE_EXPANDED.equals(value)) {
-                        return true;
-                    }
-                }
-            }
-        }
-        return false;
-    }
-
-    /**
-     * Collapse the current Feature.
-     * 
-     * @param context
-     *            the context
-     */
-    @Override
-    public void execute(ICustomContext context) {
-        // get current pictogram element
-        PictogramElement selectedPE = context.getPictogramElements()[0];
-        Feature feature = (Feature) getBusinessObjectForPictogramElement(selectedPE);
-
-        // set current X/Y coordinates of the given Feature pictogram element
-        // this coordinates are used to restore positions of the child Features
-        Graphiti.getPeService().setPropertyValue(selectedPE, Properties.PROP_KEY_CONTAINER_INIT_X,
-                String.valueOf(selectedPE.getGraphicsAlgorithm().getX()));
-        Graphiti.getPeService().setPropertyValue(selectedPE, Properties.PROP_KEY_CONTAINER_INIT_Y,
-                String.valueOf(selectedPE.getGraphicsAlgorithm().getY()));
-
-        // collapse all child elements
-        collapse(feature);
-
-        // set type of the given Feature pictogram element to collapsed
-        Graphiti.getPeService().setPropertyValue(selectedPE, Properties.PROP_KEY_CONTAINER_TYPE,
-                Properties.PROP_VAL_CONTAINER_TYPE_COLLAPSED);
-
-        // enable expand sign
-        enableExpandSign(feature);
-    }
-
-    /**
-     * Enable the expand sign.
-     * 
-     * @param feature
-     *            the Feature
-     */
-    private void enableExpandSign(Feature feature) {
-        PictogramElement[] peList = getFeatureProvider().getAllPictogramElementsForBusinessObject(feature);
-
-        for (PictogramElement pe : peList) {
-            String value = Graphiti.getPeService().getPropertyValue(pe, Properties.PROP_KEY_CONTAINER_TYPE);
-
-            if (value != null && Properties.PROP_VAL_CONTAINER_TYPE_EXPANDSIGN.equals(value)) {
-                pe.setVisible(true);
-                break;
-            }
-        }
-    }
-
-    /**
-     * Collapse recursively all child elements of the given Feature.
-     * 
-     * @param parent
-     *            the parent Feature
-     */
-    private void collapse(Feature parent) {
-        // collapse all child Groups
-        for (Group grp : parent.getChildren()) {
-            disableGroupPictogramElements(grp);
-            // collapse all child Features
-            for (Feature child : grp.getFeatures()) {
-                disableFeaturePictogramElements(child);
-                collapse(child);
-            }
-        }
-    }
-
-    /**
-     * Disable all pictogram elements of the given Group.
-     * 
-     * @param group
-     *            the Group
-     */
-    private void disableGroupPictogramElements(Group group) {
-        PictogramElement[] pes = getFeatureProvider().getAllPictogramElementsForBusinessObject(group);
-
-        for (PictogramElement pe : pes) {
-            pe.setVisible(false);
-        }
-    }
-
-    /**
-     * Disable pictogram elements of the given Feature.
-     * 
-     * @param feature
-     *            the Feature
-     */
-    private void disableFeaturePictogramElements(Feature feature) {
-        PictogramElement pe = getFeatureProvider().getPictogramElementForBusinessObject(feature);
-        pe.setVisible(false);
-    }
-}
+package org.eclipse.featuremodel.diagrameditor.features;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+import org.eclipse.featuremodel.Feature;
+import org.eclipse.featuremodel.Group;
+import org.eclipse.featuremodel.diagrameditor.utilities.BOUtil;
+import org.eclipse.featuremodel.diagrameditor.utilities.CollapseStateTable;
+import org.eclipse.featuremodel.diagrameditor.utilities.CollapsedSubtree;
+import org.eclipse.featuremodel.diagrameditor.utilities.IdGen;
+import org.eclipse.graphiti.features.IFeatureProvider;
+import org.eclipse.graphiti.features.context.IContext;
+import org.eclipse.graphiti.features.context.ICustomContext;
+import org.eclipse.graphiti.features.custom.AbstractCustomFeature;
+import org.eclipse.graphiti.mm.algorithms.GraphicsAlgorithm;
+import org.eclipse.graphiti.mm.pictograms.Connection;
+import org.eclipse.graphiti.mm.pictograms.ConnectionDecorator;
+import org.eclipse.graphiti.mm.pictograms.ContainerShape;
+import org.eclipse.graphiti.mm.pictograms.PictogramElement;
+import org.eclipse.graphiti.services.Graphiti;
+
+/**
+ * Feature handle collapsing of Feature Diagram elements. A Features with child Features can be
+ * collapsed (see {@link CollapseFeatureFeature}) to hide the child elements and expanded (see
+ * {@link ExpandFeatureFeature}) to show this.
+ * <p>
+ * By default the subtree is virtualized: the pictogram elements of the child elements are deleted
+ * and only their relative positions are kept in a {@link CollapsedSubtree} record, so the memory
+ * and the size of the diagram file depend on the visible elements only. Otherwise the child
+ * elements are just made invisible.
+ * </p>
+ * 
+ */
+public class CollapseFeatureFeature extends AbstractCustomFeature {
+
+    /**
+     * Whether the pictogram elements of the collapsed subtree are deleted.
+     */
+    private final boolean virtualize;
+
+    /**
+     * Creates an instance of {@link CollapseFeatureFeature} virtualizing the collapsed subtree.
+     * 
+     * @param fp
+     *            The feature provider.
+     */
+    public CollapseFeatureFeature(IFeatureProvider fp) {
+        this(fp, true);
+    }
+
+    /**
+     * Creates an instance of {@link CollapseFeatureFeature}.
+     * 
+     * @param fp
+     *            The feature provider.
+     * @param virtualize
+     *            <code>true</code> to delete the pictogram elements of the collapsed subtree,
+     *            <code>false</code> to make them invisible.
+     */
+    public CollapseFeatureFeature(IFeatureProvider fp, boolean virtualize) {
+        super(fp);
+        this.virtualize = virtualize;
+    }
+
+    /**
+     * Gets the name of this function feature.
+     * 
+     * @return The name.
+     */
+    @Override
+    public String getName() {
+        return "Collapse";
+    }
+
+    /**
+     * Gets the description of this function feature.
+     * 
+     * @return The description.
+     */
+    @Override
+    public String getDescription() {
+        return "Collapse child Features";
+    }
+
+    /**
+     * Decides if the collapse feature is available with the given context. This implementation
+     * returns <code>true</code> if the selected pictogram element represents a Feature.
+     * 
+     * @param context
+     *            the context.
+     * @return true if collapse feature is available, false if not
+     */
+    @Override
+    public boolean isAvailable(IContext context) {
+        if (context instanceof ICustomContext) {
+            PictogramElement[] pes = ((ICustomContext) context).getPictogramElements();
+            if (pes != null && pes.length == 1) {
+                Object bo = getBusinessObjectForPictogramElement(pes[0]);
+                if (bo instanceof Feature) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether the current pictogram element of the given context can be collapsed. This
+     * implementation returns <code>true</code> if the selected pictogram element represents a
+     * Feature, it has child Features and is not collapsed.
+     * 
+     * @param context
+     *            The context.
+     * @return true if the selected pictogram element represents a Feature, it has child Features
+     *         and is not collapsed.
+     */
+    @Override
+    public boolean canExecute(ICustomContext context) {
+        if (context instanceof ICustomContext) {
+            PictogramElement[] pes = ((ICustomContext) context).getPictogramElements();
+            // allow to collapse Feature if exactly one pictogram element is selected
+            if (pes != null && pes.length == 1) {
+                Object bo = getBusinessObjectForPictogramElement(pes[0]);
+                // allow to collapse only Feature objects with children
+                if (bo instanceof Feature && !((Feature) bo).getChildren().isEmpty()) {
+                    // allow to collapse only expanded Features
+                    return !BOUtil.isCollapsed(pes[0]);
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Collapse the current Feature.
+     * 
+     * @param context
+     *            the context
+     */
+    @Override
+    public void execute(ICustomContext context) {
+        // collapse the current pictogram element
+        collapseFeature(context.getPictogramElements()[0]);
+        CollapseStateTable.getTable(getDiagram()).flush();
+    }
+
+    /**
+     * Collapses the given Feature pictogram element. Used by {@link #execute(ICustomContext)} and
+     * by {@link CollapseToLevelFeature} for many Features in one command, the caller has to store
+     * the collapse state table (see {@link CollapseStateTable#flush()}).
+     * 
+     * @param selectedPE
+     *            the expanded Feature pictogram element
+     */
+    void collapseFeature(PictogramElement selectedPE) {
+        Feature feature = (Feature) getBusinessObjectForPictogramElement(selectedPE);
+        // the collapse state is kept by Feature id
+        assignId(feature);
+
+        CollapseStateTable table = CollapseStateTable.getTable(getDiagram());
+        if (this.virtualize) {
+            // record the child positions and delete the child elements
+            virtualize(feature, selectedPE, table);
+        } else {
+            // collapse all child elements
+            collapse(feature);
+        }
+
+        // mark the Feature as collapsed together with its current X/Y coordinates
+        // this coordinates are used to restore positions of the child Features
+        table.setCollapsed(feature, selectedPE.getGraphicsAlgorithm().getX(), selectedPE.getGraphicsAlgorithm().getY());
+
+        // draw expand sign
+        ExpandSign.show((ContainerShape) selectedPE, getDiagram());
+    }
+
+    /**
+     * Records the positions of all descendants of the given Feature relative to it and deletes their
+     * pictogram elements and the pictogram elements of all Groups of the subtree. The positions of
+     * already collapsed descendants are taken over from their records or, if they are only
+     * invisible, computed as they would be restored on expand.
+     * 
+     * @param parent
+     *            the parent Feature
+     * @param parentPE
+     *            the pictogram element of the parent Feature
+     * @param table
+     *            the collapse state table of the diagram
+     */
+    private void virtualize(Feature parent, PictogramElement parentPE, CollapseStateTable table) {
+        GraphicsAlgorithm parentGA = parentPE.getGraphicsAlgorithm();
+        CollapsedSubtree record = new CollapsedSubtree();
+        List<PictogramElement> toDelete = new ArrayList<PictogramElement>();
+
+        // parallel stacks of the Features to visit and the deltas their invisible children will be
+        // moved by on expand
+        Deque<Feature> features = new ArrayDeque<Feature>();
+        Deque<int[]> deltas = new ArrayDeque<int[]>();
+        features.push(parent);
+        deltas.push(new int[] { 0, 0 });
+        while (!features.isEmpty()) {
+            Feature current = features.pop();
+            int[] delta = deltas.pop();
+            for (Group grp : current.getChildren()) {
+                toDelete.addAll(Arrays.asList(getFeatureProvider().getAllPictogramElementsForBusinessObject(grp)));
+                for (Feature child : grp.getFeatures()) {
+                    ContainerShape cs = BOUtil.getPictogramElementForBusinessObject(child, ContainerShape.class,
+                            getFeatureProvider());
+                    if (cs == null) {
+                        continue;
+                    }
+                    toDelete.add(cs);
+                    assignId(child);
+
+                    GraphicsAlgorithm ga = cs.getGraphicsAlgorithm();
+                    int x = ga.getX() + delta[0] - parentGA.getX();
+                    int y = ga.getY() + delta[1] - parentGA.getY();
+                    int[] anchor = table.getAnchor(child);
+                    record.put(child.getId(), x, y, anchor != null);
+                    // the collapse state of the descendant is kept by the record from now on
+                    table.setExpanded(child);
+
+                    CollapsedSubtree nested = CollapsedSubtree.read(cs);
+                    if (nested != null) {
+                        record.putAll(nested, x, y);
+                    } else if (anchor != null) {
+                        // the invisible children are moved by the delta to the initial position
+                        int[] childDelta = new int[] { delta[0] + ga.getX() - anchor[0],
+                                delta[1] + ga.getY() - anchor[1] };
+                        features.push(child);
+                        deltas.push(childDelta);
+                    } else {
+                        features.push(child);
+                        deltas.push(delta);
+                    }
+                }
+            }
+        }
+
+        for (PictogramElement pe : toDelete) {
+            deletePictogramElement(pe);
+        }
+        record.write(parentPE);
+    }
+
+    /**
+     * Assigns an id to the given Feature if it has none.
+     * 
+     * @param feature
+     *            the Feature
+     */
+    private static void assignId(Feature feature) {
+        if (feature.getId() == null || feature.getId().isEmpty()) {
+            feature.setId(IdGen.generate());
+        }
+    }
+
+    /**
+     * Deletes the given pictogram element. The connection decorators of a connection are deleted
+     * before the connection.
+     * 
+     * @param pe
+     *            the pictogram element
+     */
+    private void deletePictogramElement(PictogramElement pe) {
+        // already deleted together with an other pictogram element
+        if (pe.eResource() == null) {
+            return;
+        }
+        if (pe instanceof Connection) {
+            Connection connection = (Connection) pe;
+            for (ConnectionDecorator decorator : connection.getConnectionDecorators().toArray(
+                    new ConnectionDecorator[0])) {
+                Graphiti.getPeService().deletePictogramElement(decorator);
+            }
+        }
+        Graphiti.getPeService().deletePictogramElement(pe);
+    }
+
+    /**
+     * Collapse recursively all child elements of the given Feature.
+     * 
+     * @param parent
+     *            the parent Feature
+     */
+    private void collapse(Feature parent) {
+        // collapse all child Groups
+        for (Group grp : parent.getChildren()) {
+            disableGroupPictogramElements(grp);
+            // collapse all child Features
+            for (Feature child : grp.getFeatures()) {
+                disableFeaturePictogramElements(child);
+                collapse(child);
+            }
+        }
+    }
+
+    /**
+     * Disable all pictogram elements of the given Group.
+     * 
+     * @param group
+     *            the Group
+     */
+    private void disableGroupPictogramElements(Group group) {
+        PictogramElement[] pes = getFeatureProvider().getAllPictogramElementsForBusinessObject(group);
+
+        for (PictogramElement pe : pes) {
+            pe.setVisible(false);
+        }
+    }
+
+    /**
+     * Disable pictogram elements of the given Feature.
+     * 
+     * @param feature
+     *            the Feature
+     */
+    private void disableFeaturePictogramElements(Feature feature) {
+        PictogramElement pe = getFeatureProvider().getPictogramElementForBusinessObject(feature);
+        pe.setVisible(false);
+    }
+}
@@ -0,0 +1,124 @@
+package org.eclipse.featuremodel.diagrameditor.features;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.eclipse.featuremodel.Feature;
+import org.eclipse.featuremodel.FeatureModel;
+import org.eclipse.featuremodel.Group;
+import org.eclipse.featuremodel.diagrameditor.utilities.BOUtil;
+import org.eclipse.featuremodel.diagrameditor.utilities.CollapseStateTable;
+import org.eclipse.graphiti.features.IFeatureProvider;
+import org.eclipse.graphiti.features.context.ICustomContext;
+import org.eclipse.graphiti.features.custom.AbstractCustomFeature;
+import org.eclipse.graphiti.mm.pictograms.ContainerShape;
+import org.eclipse.graphiti.mm.pictograms.PictogramElement;
+
+/**
+ * Context menu action to collapse all Features below the given level of the Feature Diagram. The
+ * root Feature is on level 1, i.e. collapsing below level 1 collapses the root Feature. The whole
+ * tree is processed in one traversal and one command, so the action can be undone in one step.
+ * 
+ */
+public class CollapseToLevelFeature extends AbstractCustomFeature {
+
+    /**
+     * The deepest level whose Features stay visible.
+     */
+    private final int level;
+
+    /**
+     * Creates an instance of {@link CollapseToLevelFeature}.
+     * 
+     * @param fp
+     *            The feature provider.
+     * @param level
+     *            The deepest level whose Features stay visible, at least 1.
+     */
+    public CollapseToLevelFeature(IFeatureProvider fp, int level) {
+        super(fp);
+        this.level = Math.max(1, level);
+    }
+
+    /**
+     * Gets the name of this function feature.
+     * 
+     * @return The name.
+     */
+    @Override
+    public String getName() {
+        return "Collapse below Level " + this.level;
+    }
+
+    /**
+     * Gets the description of this function feature.
+     * 
+     * @return The description.
+     */
+    @Override
+    public String getDescription() {
+        return "Collapse all Features below level " + this.level;
+    }
+
+    /**
+     * Checks whether the current pictogram element of the given context can be modified. This
+     * implementation returns <code>true</code> if the pictogram element represents a Feature Model
+     * with more than one Feature.
+     * 
+     * @param context
+     *            The context.
+     * @return true if the pictogram element represents a Feature Model with more than one Feature.
+     */
+    @Override
+    public boolean canExecute(ICustomContext context) {
+        PictogramElement[] pes = context.getPictogramElements();
+        if (pes != null && pes.length == 1) {
+            Object bo = getBusinessObjectForPictogramElement(pes[0]);
+            if (bo instanceof FeatureModel) {
+                FeatureModel fm = (FeatureModel) bo;
+                return fm.getRoot() != null && !fm.getRoot().getChildren().isEmpty();
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Collapses every expanded Feature with child Features on the given level. Features on upper
+     * levels stay expanded, Features below are hidden together with their collapsed ancestor.
+     * 
+     * @param context
+     *            The context.
+     */
+    @Override
+    public void execute(ICustomContext context) {
+        FeatureModel fm = (FeatureModel) getBusinessObjectForPictogramElement(getDiagram());
+        CollapseFeatureFeature collapseFeature = new CollapseFeatureFeature(getFeatureProvider());
+
+        Deque<Feature> features = new ArrayDeque<Feature>();
+        Deque<Integer> levels = new ArrayDeque<Integer>();
+        features.push(fm.getRoot());
+        levels.push(1);
+        while (!features.isEmpty()) {
+            Feature feature = features.pop();
+            int featureLevel = levels.pop();
+            ContainerShape cs = BOUtil.getPictogramElementForBusinessObject(feature, ContainerShape.class,
+                    getFeatureProvider());
+            // the subtree of a collapsed Feature is hidden already
+            if (cs == null || BOUtil.isCollapsed(cs) || feature.getChildren().isEmpty()) {
+                continue;
+            }
+
+            if (featureLevel >= this.level) {
+                collapseFeature.collapseFeature(cs);
+            } else {
+                for (Group g : feature.getChildren()) {
+                    for (Feature child : g.getFeatures()) {
+                        features.push(child);
+                        levels.push(featureLevel + 1);
+                    }
+                }
+            }
+        }
+        CollapseStateTable.getTable(getDiagram()).flush();
+    }
+}
@@ -1,257 +1,358 @@
-package org.eclipse.featuremodel.diagrameditor.features;
-
-import org.eclipse.featuremodel.Feature;
-import org.eclipse.featuremodel.Group;
-import org.eclipse.featuremodel.diagrameditor.utilities.Properties;
-import org.eclipse.graphiti.features.IFeatureProvider;
-import org.eclipse.graphiti.features.IMoveShapeFeature;
-import org.eclipse.graphiti.features.context.IContext;
-import org.eclipse.graphiti.features.context.ICustomContext;
-import org.eclipse.graphiti.features.context.impl.MoveShapeContext;
-import org.eclipse.graphiti.features.custom.AbstractCustomFeature;
-import org.eclipse.graphiti.mm.pictograms.PictogramElement;
-import org.eclipse.graphiti.mm.pictograms.Shape;
-import org.eclipse.graphiti.services.Graphiti;
-
-/**
- * Feature handle expanding of Feature Diagram elements. A Features with child Features can be
- * collapsed (see {@link CollapseFeatureFeature}) to hide the child elements and expanded (see
- * {@link ExpandFeatureFeature}) to show this.
- * 
- */
-public class ExpandFeatureFeature extends AbstractCustomFeature {
-
-    /**
-     * Creates an instance of {@link ExpandFeatureFeature}.
-     * 
-     * @param fp
-     *            The feature provider.
-     */
-    public ExpandFeatureFeature(IFeatureProvider fp) {
-        super(fp);
-    }
-
-    /**
-     * Gets the name of this function feature.
-     * 
-     * @return The name.
-     */
-    @Override
-    public String getName() {
-        return "Expand";
-    }
-
-    /**
-     * Gets the description of this function feature.
-     * 
-     * @return The description.
-     */
-    @Override
-    public String getDescription() {
-        return "Expand child Features";
-    }
-
-    /**
-     * Decides if the expand feature is available with the given context. This implementation
-     * returns <code>true</code> if the selected pictogram element represents a Feature.
-     * 
-     * @param context
-     *            the context.
-     * @return true if collapse feature is available, false if not
-     */
-    @Override
-    public boolean isAvailable(IContext context) {
-        if (context instanceof ICustomContext) {
-            PictogramElement[] pes = ((ICustomContext) context).getPictogramElements();
-            if (pes != null && pes.length == 1) {
-                Object bo = getBusinessObjectForPictogramElement(pes[0]);
-                if (bo instanceof Feature) {
-                    return true;
-                }
-            }
-        }
-        return false;
-    }
-
-    /**
-     * Checks whether the current pictogram element of the given context can be expanded. This
-     * implementation returns <code>true</code> if the selected pictogram element represents a
-     * Feature, it has child Features and is of the type
-     * {@link Properties#PROP_VAL_CONTAINER_TYPE_COLLAPSED}.
-     * 
-     * @param context
-     *            The context.
-     * @return true if the selected pictogram element represents a Feature, it has child Features
-     *         and is of the type {@link Properties#PROP_VAL_CONTAINER_TYPE_COLLAPSED}.
-     */
-    @Override
-    public boolean canExecute(ICustomContext context) {
-        if (context instanceof ICustomContext) {
-            PictogramElement[] pes = ((ICustomContext) context).getPictogramElements();
-            // allow to expand of Feature if exactly one pictogram element is selected
-            if (pes != null && pes.length == 1) {
-                Object bo = getBusinessObjectForPictogramElement(pes[0]);
-                // allow to expand only Feature objects with children
-                if (bo instanceof Feature && !((Feature) bo).getChildren().isEmpty()) {
-                    String value = Graphiti.getPeService().getPropertyValue(pes[0], Properties.PROP_KEY_CONTAINER_TYPE);
-                    // allow to expand only Feature of type collapsed
-                    if (value != null && Properties.PROP_VAL_CONTAINER_TYPE_COLLAPSED.equals(value)) {
-                        return true;
-                    }
-                }
-            }
-        }
-        return false;
-    }
-
-    /**
-     * Collapse the current Feature.
-     * 
-     * @param context
-     *            the context
-     */
-    @Override
-    public void execute(ICustomContext context) {
-        // get current pictogram element
-        PictogramElement selectedPE = context.getPictogramElements()[0];
-        Feature feature = (Feature) getBusinessObjectForPictogramElement(selectedPE);
-
-        // get the current position of the Feature to expand
-        int x = selectedPE.getGraphicsAlgorithm().getX();
-        int y = selectedPE.getGraphicsAlgorithm().getY();
-        // get the initial position of the Feature was set by collapsing
-        String oldX = Graphiti.getPeService().getPropertyValue(selectedPE, Properties.PROP_KEY_CONTAINER_INIT_X);
-        String oldY = Graphiti.getPeService().getPropertyValue(selectedPE, Properties.PROP_KEY_CONTAINER_INIT_Y);
-        // delta to move child Features
-        int deltaX = x - Integer.valueOf(oldX);
-        int deltaY = y - Integer.valueOf(oldY);
-
-        // collapse all child elements and update child positions by the given deltas.
-        expand(feature, deltaX, deltaY);
-
-        // set the type of the given Feature pictogram element to expanded
-        Graphiti.getPeService().setPropertyValue(selectedPE, Properties.PROP_KEY_CONTAINER_TYPE,
-                Properties.PROP_VAL_CONTAINER_TYPE_EXPANDED);
-
-        // disable expand sign
-        disableExpandSign(feature);
-    }
-
-    /**
-     * Disable the expand sign.
-     * 
-     * @param feature
-     *            the Feature
-     */
-    private void disableExpandSign(Feature feature) {
-        PictogramElement[] peList = getFeatureProvider().getAllPictogramElementsForBusinessObject(feature);
-
-        // look for a container of the type expand sign and disable it
-        for (PictogramElement pe : peList) {
-            String value = Graphiti.getPeService().getPropertyValue(pe, Properties.PROP_KEY_CONTAINER_TYPE);
-
-            if (value != null && Properties.PROP_VAL_CONTAINER_TYPE_EXPANDSIGN.equals(value)) {
-                pe.setVisible(false);
-                break;
-            }
-        }
-    }
-
-    /**
-     * Expand recursively all child elements of the given Feature and update child positions by the
-     * given deltas.
-     * 
-     * @param parent
-     *            the parent Feature
-     * @param deltaX
-     *            delta in X direction
-     * @param deltaY
-     *            delta in Y direction
-     */
-    private void expand(Feature parent, int deltaX, int deltaY) {
-        // expand all child Groups
-        for (Group grp : parent.getChildren()) {
-            enableGroupPictogramElements(grp);
-            // expand all child Features
-            for (Feature child : grp.getFeatures()) {
-                enableFeaturePictogramElements(child);
-                moveFeature(child, deltaX, deltaY);
-                // if a child Feature was already collapsed don't expand his child Features
-                if (!isCollapsed(child)) {
-                    expand(child, deltaX, deltaY);
-                }
-            }
-        }
-    }
-
-    /**
-     * Moves the given Feature by the given deltas.
-     * 
-     * @param feature
-     *            the Feature to move
-     * @param deltaX
-     *            delta in X direction
-     * @param deltaY
-     *            delta in Y direction
-     */
-    private void moveFeature(Feature feature, int deltaX, int deltaY) {
-        PictogramElement pe = getFeatureProvider().getPictogramElementForBusinessObject(feature);
-
-        // get the current position of the Feature pictogram element
-        int x = pe.getGraphicsAlgorithm().getX();
-        int y = pe.getGraphicsAlgorithm().getY();
-
-        // create context to move the Featrue pictogram element
-        MoveShapeContext msc = new MoveShapeContext((Shape) pe);
-        msc.setX(x + deltaX);
-        msc.setY(y + deltaY);
-        msc.setTargetContainer(getDiagram());
-
-        // get for the created context suitable move feature and execute it
-        IMoveShapeFeature moveFeature = getFeatureProvider().getMoveShapeFeature(msc);
-        moveFeature.moveShape(msc);
-    }
-
-    /**
-     * Checks whether the pictogram element of the given Feature is collapsed.
-     * 
-     * @param feature
-     *            the Feature
-     * @return <code>true</code> if the pictogram element of the given Feature is collapsed.
-     */
-    private boolean isCollapsed(Feature feature) {
-        PictogramElement pe = getFeatureProvider().getPictogramElementForBusinessObject(feature);
-        String value = Graphiti.getPeService().getPropertyValue(pe, Properties.PROP_KEY_CONTAINER_TYPE);
-
-        if (value != null && Properties.PROP_VAL_CONTAINER_TYPE_COLLAPSED.equals(value)) {
-            return true;
-        }
-
-        return false;
-    }
-
-    /**
-     * Enable all pictogram elements of the given Group.
-     * 
-     * @param group
-     *            the Group
-     */
-    private void enableGroupPictogramElements(Group group) {
-        PictogramElement[] pes = getFeatureProvider().getAllPictogramElementsForBusinessObject(group);
-
-        for (PictogramElement pe : pes) {
-            pe.setVisible(true);
-        }
-    }
-
-    /**
-     * Enable pictogram elements of the given Feature.
-     * 
-     * @param feature
-     *            the Feature
-     */
-    private void enableFeaturePictogramElements(Feature feature) {
-        PictogramElement pe = getFeatureProvider().getPictogramElementForBusinessObject(feature);
-        pe.setVisible(true);
-    }
-}
+package org.eclipse.featuremodel.diagrameditor.features;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+
+import org.eclipse.featuremodel.Feature;
+import org.eclipse.featuremodel.Group;
+import org.eclipse.featuremodel.diagrameditor.utilities.BOUtil;
+import org.eclipse.featuremodel.diagrameditor.utilities.CollapseStateTable;
+import org.eclipse.featuremodel.diagrameditor.utilities.CollapsedSubtree;
+import org.eclipse.graphiti.features.IFeatureProvider;
+import org.eclipse.graphiti.features.context.IContext;
+import org.eclipse.graphiti.features.context.ICustomContext;
+import org.eclipse.graphiti.features.context.impl.AddConnectionContext;
+import org.eclipse.graphiti.features.context.impl.AddContext;
+import org.eclipse.graphiti.features.context.impl.AreaContext;
+import org.eclipse.graphiti.features.custom.AbstractCustomFeature;
+import org.eclipse.graphiti.mm.algorithms.GraphicsAlgorithm;
+import org.eclipse.graphiti.mm.pictograms.Connection;
+import org.eclipse.graphiti.mm.pictograms.ContainerShape;
+import org.eclipse.graphiti.mm.pictograms.PictogramElement;
+import org.eclipse.graphiti.services.Graphiti;
+
+/**
+ * Feature handle expanding of Feature Diagram elements. A Features with child Features can be
+ * collapsed (see {@link CollapseFeatureFeature}) to hide the child elements and expanded (see
+ * {@link ExpandFeatureFeature}) to show this.
+ * 
+ */
+public class ExpandFeatureFeature extends AbstractCustomFeature {
+
+    /**
+     * Creates an instance of {@link ExpandFeatureFeature}.
+     * 
+     * @param fp
+     *            The feature provider.
+     */
+    public ExpandFeatureFeature(IFeatureProvider fp) {
+        super(fp);
+    }
+
+    /**
+     * Gets the name of this function feature.
+     * 
+     * @return The name.
+     */
+    @Override
+    public String getName() {
+        return "Expand";
+    }
+
+    /**
+     * Gets the description of this function feature.
+     * 
+     * @return The description.
+     */
+    @Override
+    public String getDescription() {
+        return "Expand child Features";
+    }
+
+    /**
+     * Decides if the expand feature is available with the given context. This implementation
+     * returns <code>true</code> if the selected pictogram element represents a Feature.
+     * 
+     * @param context
+     *            the context.
+     * @return true if collapse feature is available, false if not
+     */
+    @Override
+    public boolean isAvailable(IContext context) {
+        if (context instanceof ICustomContext) {
+            PictogramElement[] pes = ((ICustomContext) context).getPictogramElements();
+            if (pes != null && pes.length == 1) {
+                Object bo = getBusinessObjectForPictogramElement(pes[0]);
+                if (bo instanceof Feature) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether the current pictogram element of the given context can be expanded. This
+     * implementation returns <code>true</code> if the selected pictogram element represents a
+     * Feature, it has child Features and is collapsed.
+     * 
+     * @param context
+     *            The context.
+     * @return true if the selected pictogram element represents a Feature, it has child Features
+     *         and is collapsed.
+     */
+    @Override
+    public boolean canExecute(ICustomContext context) {
+        if (context instanceof ICustomContext) {
+            PictogramElement[] pes = ((ICustomContext) context).getPictogramElements();
+            // allow to expand of Feature if exactly one pictogram element is selected
+            if (pes != null && pes.length == 1) {
+                Object bo = getBusinessObjectForPictogramElement(pes[0]);
+                // allow to expand only Feature objects with children
+                if (bo instanceof Feature && !((Feature) bo).getChildren().isEmpty()) {
+                    // allow to expand only collapsed Features
+                    return BOUtil.isCollapsed(pes[0]);
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Collapse the current Feature.
+     * 
+     * @param context
+     *            the context
+     */
+    @Override
+    public void execute(ICustomContext context) {
+        // expand the current pictogram element and update the relation notations once
+        List<Feature> restored = new ArrayList<Feature>();
+        expandFeature(context.getPictogramElements()[0], restored);
+        updateGroups(restored);
+        CollapseStateTable.getTable(getDiagram()).flush();
+    }
+
+    /**
+     * Expands the given Feature pictogram element. The relation notations of the Groups are not
+     * updated and the collapse state table is not stored, so {@link ExpandToLevelFeature} can
+     * expand many Features and update every Group once (see {@link #updateGroups(Collection)} and
+     * {@link CollapseStateTable#flush()}).
+     * 
+     * @param selectedPE
+     *            the collapsed Feature pictogram element
+     * @param restored
+     *            collects the Features whose pictogram elements have been restored
+     */
+    void expandFeature(PictogramElement selectedPE, Collection<Feature> restored) {
+        Feature feature = (Feature) getBusinessObjectForPictogramElement(selectedPE);
+
+        // mark the Feature as expanded, the position at collapsing is needed below
+        CollapseStateTable table = CollapseStateTable.getTable(getDiagram());
+        int[] anchor = table.getAnchor(feature);
+        table.setExpanded(feature);
+
+        // delete expand sign
+        ExpandSign.hide((ContainerShape) selectedPE);
+
+        CollapsedSubtree record = CollapsedSubtree.read(selectedPE);
+        if (record != null) {
+            // re-create the deleted child elements at the recorded positions
+            CollapsedSubtree.remove(selectedPE);
+            materialize(feature, (ContainerShape) selectedPE, record, restored);
+        } else {
+            // get the current position of the Feature to expand
+            int x = selectedPE.getGraphicsAlgorithm().getX();
+            int y = selectedPE.getGraphicsAlgorithm().getY();
+            // delta to move child Features from the position of the Feature at collapsing
+            int deltaX = anchor == null ? 0 : x - anchor[0];
+            int deltaY = anchor == null ? 0 : y - anchor[1];
+
+            // expand all child elements and update child positions by the given deltas.
+            expand(feature, deltaX, deltaY, restored);
+        }
+    }
+
+    /**
+     * Expands all child elements of the given Feature and moves the restored Feature pictogram
+     * elements by the given deltas. The graphics algorithms are translated directly instead of
+     * running a move feature for every Feature, the relation notation of every affected Group is
+     * updated once afterwards.
+     * 
+     * @param parent
+     *            the parent Feature
+     * @param deltaX
+     *            delta in X direction
+     * @param deltaY
+     *            delta in Y direction
+     * @param restored
+     *            collects the restored Features
+     */
+    private void expand(Feature parent, int deltaX, int deltaY, Collection<Feature> restored) {
+        Deque<Feature> stack = new ArrayDeque<Feature>();
+        stack.push(parent);
+        while (!stack.isEmpty()) {
+            Feature current = stack.pop();
+            // expand all child Groups
+            for (Group grp : current.getChildren()) {
+                enableGroupPictogramElements(grp);
+                // expand all child Features
+                for (Feature child : grp.getFeatures()) {
+                    PictogramElement pe = getFeatureProvider().getPictogramElementForBusinessObject(child);
+                    pe.setVisible(true);
+                    translate(pe, deltaX, deltaY);
+                    restored.add(child);
+                    // if a child Feature was already collapsed don't expand his child Features
+                    if (!BOUtil.isCollapsed(pe)) {
+                        stack.push(child);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Re-creates the pictogram elements of the virtualized subtree of the given Feature (see
+     * {@link CollapseFeatureFeature}) at the recorded positions. Collapsed descendants are restored
+     * as collapsed Features with their part of the record. If a Feature is missing in the record
+     * (e.g. the Feature Model has been changed outside of the diagram), the subtree is arranged by
+     * the layout.
+     * 
+     * @param parent
+     *            the parent Feature
+     * @param parentCS
+     *            the container shape of the parent Feature
+     * @param record
+     *            the record of the subtree
+     * @param restored
+     *            collects the restored Features
+     */
+    private void materialize(Feature parent, ContainerShape parentCS, CollapsedSubtree record,
+            Collection<Feature> restored) {
+        GraphicsAlgorithm parentGA = parentCS.getGraphicsAlgorithm();
+        boolean complete = true;
+
+        // parallel stacks of the Features to expand and their container shapes
+        Deque<Feature> features = new ArrayDeque<Feature>();
+        Deque<ContainerShape> shapes = new ArrayDeque<ContainerShape>();
+        features.push(parent);
+        shapes.push(parentCS);
+        while (!features.isEmpty()) {
+            Feature current = features.pop();
+            ContainerShape currentCS = shapes.pop();
+            for (Group grp : current.getChildren()) {
+                for (Feature child : grp.getFeatures()) {
+                    CollapsedSubtree.Entry entry = record.get(child);
+                    ContainerShape cs = BOUtil.getPictogramElementForBusinessObject(child, ContainerShape.class,
+                            getFeatureProvider());
+                    if (cs == null) {
+                        GraphicsAlgorithm currentGA = currentCS.getGraphicsAlgorithm();
+                        int x = currentGA.getX();
+                        int y = currentGA.getY() + currentGA.getHeight();
+                        if (entry != null) {
+                            x = parentGA.getX() + entry.getX();
+                            y = parentGA.getY() + entry.getY();
+                        } else {
+                            complete = false;
+                        }
+                        cs = addFeature(child, currentCS, x, y);
+                        addGroupConnection(grp, currentCS, cs);
+                    }
+                    restored.add(child);
+
+                    if (entry != null && entry.isCollapsed() && !child.getChildren().isEmpty()) {
+                        // keep the collapsed descendant collapsed with its part of the record
+                        CollapseStateTable.getTable(getDiagram()).setCollapsed(child,
+                                cs.getGraphicsAlgorithm().getX(), cs.getGraphicsAlgorithm().getY());
+                        ExpandSign.show(cs, getDiagram());
+                        record.extract(child).write(cs);
+                    } else {
+                        features.push(child);
+                        shapes.push(cs);
+                    }
+                }
+            }
+        }
+
+        if (!complete) {
+            new LayoutFeatureFeature(getFeatureProvider()).layoutChildren(parent);
+        }
+    }
+
+    /**
+     * Adds the pictogram element of the given Feature at the given position.
+     * 
+     * @param feature
+     *            the Feature
+     * @param parentCS
+     *            the container shape of the parent Feature
+     * @param x
+     *            the x coordinate
+     * @param y
+     *            the y coordinate
+     * @return the container shape of the Feature
+     */
+    private ContainerShape addFeature(Feature feature, ContainerShape parentCS, int x, int y) {
+        AddContext addContext = new AddContext(new AreaContext(), feature);
+        addContext.setTargetContainer(parentCS);
+        addContext.setLocation(x, y);
+        return (ContainerShape) addGraphicalRepresentation(addContext, feature);
+    }
+
+    /**
+     * Adds the connection of the given Group between the parent and the child Feature.
+     * 
+     * @param group
+     *            the Group
+     * @param parentCS
+     *            the container shape of the parent Feature
+     * @param childCS
+     *            the container shape of the child Feature
+     */
+    private void addGroupConnection(Group group, ContainerShape parentCS, ContainerShape childCS) {
+        AddConnectionContext addGroupContext = new AddConnectionContext(BOUtil.getOutputAnchor(parentCS),
+                BOUtil.getInputAnchor(childCS));
+        addGroupContext.setNewObject(group);
+        getFeatureProvider().addIfPossible(addGroupContext);
+    }
+
+    /**
+     * Updates the relation notation of every Group connected to one of the given Features once.
+     * 
+     * @param features
+     *            the restored Features
+     */
+    void updateGroups(Collection<Feature> features) {
+        for (Group grp : BOUtil.getAdjacentGroups(features)) {
+            Connection c = BOUtil.getPictogramElementForBusinessObject(grp, Connection.class, getFeatureProvider());
+            if (c != null) {
+                updatePictogramElement(c);
+            }
+        }
+    }
+
+    /**
+     * Moves the given Feature pictogram element by the given deltas.
+     * 
+     * @param pe
+     *            the Feature pictogram element
+     * @param deltaX
+     *            delta in X direction
+     * @param deltaY
+     *            delta in Y direction
+     */
+    private void translate(PictogramElement pe, int deltaX, int deltaY) {
+        if (deltaX == 0 && deltaY == 0) {
+            return;
+        }
+        GraphicsAlgorithm ga = pe.getGraphicsAlgorithm();
+        Graphiti.getGaService().setLocation(ga, ga.getX() + deltaX, ga.getY() + deltaY);
+    }
+
+    /**
+     * Enable all pictogram elements of the given Group.
+     * 
+     * @param group
+     *            the Group
+     */
+    private void enableGroupPictogramElements(Group group) {
+        PictogramElement[] pes = getFeatureProvider().getAllPictogramElementsForBusinessObject(group);
+
+        for (PictogramElement pe : pes) {
+            pe.setVisible(true);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package org.eclipse.featuremodel.diagrameditor.features;
+
+import org.eclipse.featuremodel.diagrameditor.utilities.Properties;
+import org.eclipse.featuremodel.diagrameditor.utilities.StyleUtil;
+import org.eclipse.graphiti.mm.algorithms.Rectangle;
+import org.eclipse.graphiti.mm.algorithms.styles.Style;
+import org.eclipse.graphiti.mm.pictograms.ContainerShape;
+import org.eclipse.graphiti.mm.pictograms.Diagram;
+import org.eclipse.graphiti.mm.pictograms.Shape;
+import org.eclipse.graphiti.services.Graphiti;
+import org.eclipse.graphiti.services.IGaService;
+import org.eclipse.graphiti.services.IPeService;
+
+/**
+ * The expand sign of a collapsed Feature. A Features with child Features can be collapsed (see
+ * {@link CollapseFeatureFeature}) to hide the child elements and expanded (see
+ * {@link ExpandFeatureFeature}) to show this. The expand sign is created when a Feature is
+ * collapsed and deleted when it is expanded, so only collapsed Features carry its pictogram
+ * elements.
+ * 
+ */
+final class ExpandSign {
+
+    /**
+     * Size of the expand sign.
+     */
+    private static final int EXPAND_SIGN_SIZE = 11;
+
+    /**
+     * Hidden constructor of the utility class.
+     */
+    private ExpandSign() {
+    }
+
+    /**
+     * Shows the expand sign of the given Feature container shape. The expand sign is drawn if it
+     * does not exist yet.
+     * 
+     * @param featureContainerShape
+     *            the main container shape of the Feature
+     * @param diagram
+     *            the diagram providing the style of the expand sign
+     */
+    static void show(ContainerShape featureContainerShape, Diagram diagram) {
+        Shape expandSign = find(featureContainerShape);
+        if (expandSign != null) {
+            // an expand sign drawn for every Feature by former versions
+            expandSign.setVisible(true);
+        } else {
+            draw(featureContainerShape, diagram);
+        }
+    }
+
+    /**
+     * Deletes the expand sign of the given Feature container shape if it exists.
+     * 
+     * @param featureContainerShape
+     *            the main container shape of the Feature
+     */
+    static void hide(ContainerShape featureContainerShape) {
+        Shape expandSign = find(featureContainerShape);
+        if (expandSign != null) {
+            Graphiti.getPeService().deletePictogramElement(expandSign);
+        }
+    }
+
+    /**
+     * Finds the expand sign among the children of the given Feature container shape.
+     * 
+     * @param featureContainerShape
+     *            the main container shape of the Feature
+     * @return the container shape of the expand sign or <code>null</code> if not exists
+     */
+    private static Shape find(ContainerShape featureContainerShape) {
+        for (Shape shape : featureContainerShape.getChildren()) {
+            String value = Graphiti.getPeService().getPropertyValue(shape, Properties.PROP_KEY_CONTAINER_TYPE);
+            if (Properties.PROP_VAL_CONTAINER_TYPE_EXPANDSIGN.equals(value)) {
+                return shape;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Draws the expand sign in the bottom right corner of the given Feature container shape.
+     * 
+     * @param featureContainerShape
+     *            the main container shape of the Feature
+     * @param diagram
+     *            the diagram providing the style of the expand sign
+     */
+    private static void draw(ContainerShape featureContainerShape, Diagram diagram) {
+        IPeService peService = Graphiti.getPeService();
+        IGaService gaService = Graphiti.getGaService();
+        // the expand sign container
+        ContainerShape expandSignContainer = peService.createContainerShape(featureContainerShape, false);
+        peService.setPropertyValue(expandSignContainer, Properties.PROP_KEY_CONTAINER_TYPE,
+                Properties.PROP_VAL_CONTAINER_TYPE_EXPANDSIGN);
+
+        // the border rectangle
+        Style expandSignStyle = StyleUtil.getStyleForExpandSign(diagram);
+        Rectangle expandRectangle = gaService.createPlainRectangle(expandSignContainer);
+        expandRectangle.setStyle(expandSignStyle);
+        int x = featureContainerShape.getGraphicsAlgorithm().getWidth() - EXPAND_SIGN_SIZE - 5;
+        int y = featureContainerShape.getGraphicsAlgorithm().getHeight() - EXPAND_SIGN_SIZE - 5;
+        gaService.setLocationAndSize(expandRectangle, x, y, EXPAND_SIGN_SIZE, EXPAND_SIGN_SIZE);
+
+        // draw lines for plus sign
+        // vertical line
+        Shape xLineShape = peService.createShape(expandSignContainer, false);
+        int[] points = new int[] { EXPAND_SIGN_SIZE / 2, 1, EXPAND_SIGN_SIZE / 2, EXPAND_SIGN_SIZE - 2 };
+        gaService.createPlainPolyline(xLineShape, points).setStyle(expandSignStyle);
+        // horizontal line
+        Shape yLineShape = peService.createShape(expandSignContainer, false);
+        points = new int[] { 1, EXPAND_SIGN_SIZE / 2, EXPAND_SIGN_SIZE - 2, EXPAND_SIGN_SIZE / 2 };
+        gaService.createPlainPolyline(yLineShape, points).setStyle(expandSignStyle);
+    }
+}
@@ -0,0 +1,132 @@
+package org.eclipse.featuremodel.diagrameditor.features;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import org.eclipse.featuremodel.Feature;
+import org.eclipse.featuremodel.FeatureModel;
+import org.eclipse.featuremodel.Group;
+import org.eclipse.featuremodel.diagrameditor.utilities.BOUtil;
+import org.eclipse.featuremodel.diagrameditor.utilities.CollapseStateTable;
+import org.eclipse.graphiti.features.IFeatureProvider;
+import org.eclipse.graphiti.features.context.ICustomContext;
+import org.eclipse.graphiti.features.custom.AbstractCustomFeature;
+import org.eclipse.graphiti.mm.pictograms.ContainerShape;
+import org.eclipse.graphiti.mm.pictograms.PictogramElement;
+
+/**
+ * Context menu action to expand the Feature Diagram down to the given level. The root Feature is
+ * on level 1, i.e. expanding to level 2 shows the root Feature and its child Features. The whole
+ * tree is processed in one traversal and one command and the relation notation of every restored
+ * Group is updated once at the end.
+ * 
+ */
+public class ExpandToLevelFeature extends AbstractCustomFeature {
+
+    /**
+     * The deepest level whose Features become visible.
+     */
+    private final int level;
+
+    /**
+     * Creates an instance of {@link ExpandToLevelFeature}.
+     * 
+     * @param fp
+     *            The feature provider.
+     * @param level
+     *            The deepest level whose Features become visible, at least 1.
+     */
+    public ExpandToLevelFeature(IFeatureProvider fp, int level) {
+        super(fp);
+        this.level = Math.max(1, level);
+    }
+
+    /**
+     * Gets the name of this function feature.
+     * 
+     * @return The name.
+     */
+    @Override
+    public String getName() {
+        return "Expand to Level " + this.level;
+    }
+
+    /**
+     * Gets the description of this function feature.
+     * 
+     * @return The description.
+     */
+    @Override
+    public String getDescription() {
+        return "Expand all Features down to level " + this.level;
+    }
+
+    /**
+     * Checks whether the current pictogram element of the given context can be modified. This
+     * implementation returns <code>true</code> if the pictogram element represents a Feature Model
+     * with more than one Feature.
+     * 
+     * @param context
+     *            The context.
+     * @return true if the pictogram element represents a Feature Model with more than one Feature.
+     */
+    @Override
+    public boolean canExecute(ICustomContext context) {
+        PictogramElement[] pes = context.getPictogramElements();
+        if (pes != null && pes.length == 1) {
+            Object bo = getBusinessObjectForPictogramElement(pes[0]);
+            if (bo instanceof FeatureModel) {
+                FeatureModel fm = (FeatureModel) bo;
+                return fm.getRoot() != null && !fm.getRoot().getChildren().isEmpty();
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Expands every collapsed Feature above the given level. Collapsed Features on the given level
+     * and below stay collapsed.
+     * 
+     * @param context
+     *            The context.
+     */
+    @Override
+    public void execute(ICustomContext context) {
+        FeatureModel fm = (FeatureModel) getBusinessObjectForPictogramElement(getDiagram());
+        ExpandFeatureFeature expandFeature = new ExpandFeatureFeature(getFeatureProvider());
+        List<Feature> restored = new ArrayList<Feature>();
+
+        Deque<Feature> features = new ArrayDeque<Feature>();
+        Deque<Integer> levels = new ArrayDeque<Integer>();
+        features.push(fm.getRoot());
+        levels.push(1);
+        while (!features.isEmpty()) {
+            Feature feature = features.pop();
+            int featureLevel = levels.pop();
+            if (featureLevel >= this.level || feature.getChildren().isEmpty()) {
+                continue;
+            }
+            ContainerShape cs = BOUtil.getPictogramElementForBusinessObject(feature, ContainerShape.class,
+                    getFeatureProvider());
+            if (cs == null) {
+                continue;
+            }
+
+            if (BOUtil.isCollapsed(cs)) {
+                expandFeature.expandFeature(cs, restored);
+            }
+            for (Group g : feature.getChildren()) {
+                for (Feature child : g.getFeatures()) {
+                    features.push(child);
+                    levels.push(featureLevel + 1);
+                }
+            }
+        }
+
+        // update the relation notations once for all restored Features
+        expandFeature.updateGroups(restored);
+        CollapseStateTable.getTable(getDiagram()).flush();
+    }
+}
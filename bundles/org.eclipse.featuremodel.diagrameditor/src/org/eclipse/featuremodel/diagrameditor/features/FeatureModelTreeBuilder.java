@@ -0,0 +1,247 @@
+package org.eclipse.featuremodel.diagrameditor.features;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.featuremodel.Feature;
+import org.eclipse.featuremodel.Group;
+import org.eclipse.featuremodel.diagrameditor.layout.TreeLayoutNode;
+import org.eclipse.featuremodel.diagrameditor.utilities.BOUtil;
+import org.eclipse.featuremodel.diagrameditor.utilities.IdGen;
+import org.eclipse.graphiti.features.IFeatureProvider;
+import org.eclipse.graphiti.features.context.impl.AddConnectionContext;
+import org.eclipse.graphiti.features.context.impl.AddContext;
+import org.eclipse.graphiti.features.context.impl.AreaContext;
+import org.eclipse.graphiti.features.context.impl.UpdateContext;
+import org.eclipse.graphiti.mm.pictograms.ContainerShape;
+import org.eclipse.graphiti.mm.pictograms.Diagram;
+import org.eclipse.graphiti.mm.pictograms.PictogramElement;
+
+/**
+ * Builds the pictogram elements of a Feature Model tree in two stages. First the tree is planned
+ * without accessing the diagram: for every Feature a plain descriptor with the parent (the target
+ * of the Group connection) and the position computed by the tree layout (see
+ * {@link LayoutDiagramFeature}) is created. The Feature Model is only read in the calling thread,
+ * the tree layout works on the plain layout nodes of the descriptors only. Then the descriptors
+ * are applied to the diagram in breadth-first order in the calling thread, the Features are added
+ * at their final positions and the relations of the Groups are drawn as soon as all child
+ * Features of a Feature are added, so the diagram needs no layout afterwards. The descriptors can
+ * be applied at once (see {@link #addAll()}) or in chunks (see {@link #addNext(int)}), e.g. one
+ * command per chunk with progress reporting and cancellation between the chunks.
+ * 
+ */
+public class FeatureModelTreeBuilder {
+
+    /**
+     * The feature provider.
+     */
+    private final IFeatureProvider fp;
+
+    /**
+     * The descriptor of the root Feature.
+     */
+    private final ShapeDescriptor root;
+
+    /**
+     * The descriptors of the Features still to be added, the child Features of a Feature follow
+     * each other.
+     */
+    private final Deque<ShapeDescriptor> descriptors = new ArrayDeque<ShapeDescriptor>();
+
+    /**
+     * Creates an instance of {@link FeatureModelTreeBuilder} and plans the tree of the given root
+     * Feature.
+     * 
+     * @param fp
+     *            The feature provider.
+     * @param root
+     *            The root Feature of the tree.
+     */
+    public FeatureModelTreeBuilder(IFeatureProvider fp, Feature root) {
+        this.fp = fp;
+        this.root = new ShapeDescriptor(root, null, null);
+        plan();
+    }
+
+    /**
+     * Adds the root Feature to the given diagram.
+     * 
+     * @param diagram
+     *            The empty diagram.
+     * @return The container shape of the root Feature.
+     */
+    public ContainerShape addRoot(Diagram diagram) {
+        assignIds(this.root);
+        this.root.shape = addFeature(this.root, diagram);
+        return this.root.shape;
+    }
+
+    /**
+     * Checks whether there are elements left to add.
+     * 
+     * @return true if {@link #addNext(int)} has something to do.
+     */
+    public boolean hasNext() {
+        return !this.descriptors.isEmpty();
+    }
+
+    /**
+     * Adds all remaining elements.
+     * 
+     * @return The number of added Features.
+     */
+    public int addAll() {
+        return addNext(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Adds the next elements. The root Feature has to be added before (see
+     * {@link #addRoot(Diagram)}). The child elements of a Feature are always added together, so the
+     * number of added Features may exceed the given number by the child Features of one Feature.
+     * 
+     * @param count
+     *            The number of Features to add at least, if there are enough left.
+     * @return The number of added Features.
+     */
+    public int addNext(int count) {
+        int added = 0;
+        ShapeDescriptor lastParent = null;
+        // the first connection of every Group of the current parent
+        Map<Group, PictogramElement> connections = new LinkedHashMap<Group, PictogramElement>();
+        while (!this.descriptors.isEmpty() && (added < count || this.descriptors.peek().parent == lastParent)) {
+            ShapeDescriptor descriptor = this.descriptors.poll();
+            lastParent = descriptor.parent;
+            assignIds(descriptor);
+
+            // Create the visualization of the Feature.
+            descriptor.shape = addFeature(descriptor, descriptor.parent.shape);
+
+            // Create the visualization of the Group
+            AddConnectionContext addGroupContext = new AddConnectionContext(
+                    BOUtil.getOutputAnchor(descriptor.parent.shape), BOUtil.getInputAnchor(descriptor.shape));
+            addGroupContext.setNewObject(descriptor.group);
+            PictogramElement connection = this.fp.addIfPossible(addGroupContext);
+            if (!connections.containsKey(descriptor.group)) {
+                connections.put(descriptor.group, connection);
+            }
+            added++;
+
+            // all child elements of the parent are added, draw the relations of its Groups
+            if (this.descriptors.isEmpty() || this.descriptors.peek().parent != lastParent) {
+                for (PictogramElement c : connections.values()) {
+                    this.fp.updateIfPossible(new UpdateContext(c));
+                }
+                connections.clear();
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Adds the Feature of the given descriptor at its planned position.
+     * 
+     * @param descriptor
+     *            The descriptor.
+     * @param targetContainer
+     *            The container shape of the parent Feature or the diagram.
+     * @return The container shape of the Feature.
+     */
+    private ContainerShape addFeature(ShapeDescriptor descriptor, ContainerShape targetContainer) {
+        AddContext addFeatureContext = new AddContext(new AreaContext(), descriptor.feature);
+        addFeatureContext.setTargetContainer(targetContainer);
+        addFeatureContext.setLocation(descriptor.node.getX(), descriptor.node.getY());
+        return (ContainerShape) this.fp.addIfPossible(addFeatureContext);
+    }
+
+    /**
+     * Assigns ids to the Feature and the Group of the given descriptor if they have none.
+     * 
+     * @param descriptor
+     *            The descriptor.
+     */
+    private static void assignIds(ShapeDescriptor descriptor) {
+        Group group = descriptor.group;
+        if (group != null && (group.getId() == null || group.getId().isEmpty())) {
+            group.setId(IdGen.generate());
+        }
+        Feature feature = descriptor.feature;
+        if (feature.getId() == null || feature.getId().isEmpty()) {
+            feature.setId(IdGen.generate());
+        }
+    }
+
+    /**
+     * Plans the tree: creates the descriptors of all Features below the root Feature in
+     * breadth-first order and computes their positions.
+     */
+    private void plan() {
+        List<ShapeDescriptor> planned = new ArrayList<ShapeDescriptor>();
+        planned.add(this.root);
+        for (int i = 0; i < planned.size(); i++) {
+            ShapeDescriptor parent = planned.get(i);
+            for (Group group : parent.feature.getChildren()) {
+                for (Feature feature : group.getFeatures()) {
+                    ShapeDescriptor descriptor = new ShapeDescriptor(feature, group, parent);
+                    parent.node.addChild(descriptor.node);
+                    planned.add(descriptor);
+                }
+            }
+        }
+        this.descriptors.addAll(planned.subList(1, planned.size()));
+
+        LayoutDiagramFeature.layoutTree(this.root.node);
+    }
+
+    /**
+     * The plain descriptor of a Feature figure.
+     */
+    private static final class ShapeDescriptor {
+
+        /**
+         * The Feature.
+         */
+        private final Feature feature;
+
+        /**
+         * The Group containing the Feature, <code>null</code> for the root Feature.
+         */
+        private final Group group;
+
+        /**
+         * The descriptor of the parent Feature, the Group connection starts at its output anchor.
+         */
+        private final ShapeDescriptor parent;
+
+        /**
+         * The layout node holding the size and the planned position of the figure.
+         */
+        private final TreeLayoutNode node;
+
+        /**
+         * The container shape of the Feature, set when the Feature has been added.
+         */
+        private ContainerShape shape;
+
+        /**
+         * Creates an instance of {@link ShapeDescriptor}.
+         * 
+         * @param feature
+         *            The Feature.
+         * @param group
+         *            The Group containing the Feature.
+         * @param parent
+         *            The descriptor of the parent Feature.
+         */
+        private ShapeDescriptor(Feature feature, Group group, ShapeDescriptor parent) {
+            this.feature = feature;
+            this.group = group;
+            this.parent = parent;
+            this.node = new TreeLayoutNode(this, AddFeatureFeature.FEATURE_FIGURE_WIDTH,
+                    AddFeatureFeature.FEATURE_FIGURE_HIGH);
+        }
+    }
+}
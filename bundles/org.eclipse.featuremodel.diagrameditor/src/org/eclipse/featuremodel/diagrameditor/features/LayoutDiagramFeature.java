@@ -1,147 +1,480 @@
-package org.eclipse.featuremodel.diagrameditor.features;
-
-import java.util.HashMap;
-import java.util.Map;
-
-import org.eclipse.draw2d.geometry.Insets;
-import org.eclipse.draw2d.graph.CompoundDirectedGraph;
-import org.eclipse.draw2d.graph.CompoundDirectedGraphLayout;
-import org.eclipse.draw2d.graph.Edge;
-import org.eclipse.draw2d.graph.EdgeList;
-import org.eclipse.draw2d.graph.Node;
-import org.eclipse.draw2d.graph.NodeList;
-import org.eclipse.emf.common.util.EList;
-import org.eclipse.featuremodel.FeatureModel;
-import org.eclipse.graphiti.features.IFeatureProvider;
-import org.eclipse.graphiti.features.context.ILayoutContext;
-import org.eclipse.graphiti.features.impl.AbstractLayoutFeature;
-import org.eclipse.graphiti.mm.algorithms.GraphicsAlgorithm;
-import org.eclipse.graphiti.mm.pictograms.AnchorContainer;
-import org.eclipse.graphiti.mm.pictograms.Connection;
-import org.eclipse.graphiti.mm.pictograms.Diagram;
-import org.eclipse.graphiti.mm.pictograms.PictogramElement;
-import org.eclipse.graphiti.mm.pictograms.Shape;
-
-/**
- * Layouts the tree structure of the Feature Diagram.
- * 
- */
-public class LayoutDiagramFeature extends AbstractLayoutFeature {
-
-    /**
-     * Minimal distance between nodes.
-     */
-    private static final int PADDING = 30;
-
-    /**
-     * Creates an instance of {@link LayoutDiagramFeature}.
-     * 
-     * @param fp
-     *            The feature provider.
-     */
-    public LayoutDiagramFeature(IFeatureProvider fp) {
-        super(fp);
-    }
-
-    /**
-     * Checks whether the current pictogram element of the given context can be layouted.
-     * 
-     * @param context
-     *            The context.
-     * @return true if update is possible
-     */
-    @Override
-    public boolean canLayout(ILayoutContext context) {
-        PictogramElement pe = context.getPictogramElement();
-        Object obj = getBusinessObjectForPictogramElement(pe);
-        if (obj instanceof FeatureModel) {
-            return true;
-        }
-
-        return false;
-    }
-
-    /**
-     * Layouts the whole tree of Feature Model. Maps the diagram to a graph structure, layouts the
-     * graph and maps the new coordinates back to the diagram.
-     * 
-     * @param context
-     *            The context.
-     * @return true, if layout process was successfully
-     */
-    @Override
-    public boolean layout(ILayoutContext context) {
-        final CompoundDirectedGraph graph = mapDiagramToGraph();
-        graph.setDefaultPadding(new Insets(PADDING));
-        new CompoundDirectedGraphLayout().visit(graph);
-        mapGraphCoordinatesToDiagram(graph);
-
-        // update all Group relations to given connections
-        for (Connection c : getDiagram().getConnections()) {
-            this.updatePictogramElement(c);
-        }
-
-        return true;
-    }
-
-    /**
-     * Help method to map back the graph nodes to the diagram objects.
-     * 
-     * @param graph
-     *            The graph to map back.
-     */
-    @SuppressWarnings("unchecked")
-    private void mapGraphCoordinatesToDiagram(CompoundDirectedGraph graph) {
-        NodeList myNodes = new NodeList();
-        myNodes.addAll(graph.nodes);
-        myNodes.addAll(graph.subgraphs);
-        for (Object object : myNodes) {
-            Node node = (Node) object;
-            Shape shape = (Shape) node.data;
-            shape.getGraphicsAlgorithm().setX(node.x);
-            shape.getGraphicsAlgorithm().setY(node.y);
-            shape.getGraphicsAlgorithm().setWidth(node.width);
-            shape.getGraphicsAlgorithm().setHeight(node.height);
-        }
-    }
-
-    /**
-     * Help method to map diagram objects to a graph nodes.
-     * 
-     * @return The graph.
-     */
-    @SuppressWarnings("unchecked")
-    private CompoundDirectedGraph mapDiagramToGraph() {
-        Map<AnchorContainer, Node> shapeToNode = new HashMap<AnchorContainer, Node>();
-        Diagram d = getDiagram();
-        CompoundDirectedGraph dg = new CompoundDirectedGraph();
-        EdgeList edgeList = new EdgeList();
-        NodeList nodeList = new NodeList();
-        EList<Shape> children = d.getChildren();
-
-        for (Shape shape : children) {
-            Node node = new Node();
-            GraphicsAlgorithm ga = shape.getGraphicsAlgorithm();
-            node.x = ga.getX();
-            node.y = ga.getY();
-            node.width = ga.getWidth();
-            node.height = ga.getHeight();
-            node.data = shape;
-            shapeToNode.put(shape, node);
-            nodeList.add(node);
-        }
-
-        EList<Connection> connections = d.getConnections();
-        for (Connection connection : connections) {
-            AnchorContainer source = connection.getStart().getParent();
-            AnchorContainer target = connection.getEnd().getParent();
-            Edge edge = new Edge(shapeToNode.get(source), shapeToNode.get(target));
-            edge.data = connection;
-            edgeList.add(edge);
-        }
-        dg.nodes = nodeList;
-        dg.edges = edgeList;
-        return dg;
-    }
-
-}
+package org.eclipse.featuremodel.diagrameditor.features;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.draw2d.geometry.Insets;
+import org.eclipse.draw2d.graph.CompoundDirectedGraph;
+import org.eclipse.draw2d.graph.CompoundDirectedGraphLayout;
+import org.eclipse.draw2d.graph.Edge;
+import org.eclipse.draw2d.graph.EdgeList;
+import org.eclipse.draw2d.graph.Node;
+import org.eclipse.draw2d.graph.NodeList;
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.featuremodel.Feature;
+import org.eclipse.featuremodel.FeatureModel;
+import org.eclipse.featuremodel.Group;
+import org.eclipse.featuremodel.diagrameditor.layout.TreeLayout;
+import org.eclipse.featuremodel.diagrameditor.layout.TreeLayoutNode;
+import org.eclipse.featuremodel.diagrameditor.utilities.BOUtil;
+import org.eclipse.featuremodel.diagrameditor.utilities.CollapsedSubtree;
+import org.eclipse.graphiti.features.IFeatureProvider;
+import org.eclipse.graphiti.features.context.ILayoutContext;
+import org.eclipse.graphiti.features.impl.AbstractLayoutFeature;
+import org.eclipse.graphiti.mm.algorithms.GraphicsAlgorithm;
+import org.eclipse.graphiti.mm.pictograms.AnchorContainer;
+import org.eclipse.graphiti.mm.pictograms.Connection;
+import org.eclipse.graphiti.mm.pictograms.ContainerShape;
+import org.eclipse.graphiti.mm.pictograms.Diagram;
+import org.eclipse.graphiti.mm.pictograms.PictogramElement;
+import org.eclipse.graphiti.mm.pictograms.Shape;
+
+/**
+ * Layouts the tree structure of the Feature Diagram.
+ * 
+ */
+public class LayoutDiagramFeature extends AbstractLayoutFeature {
+
+    /**
+     * Minimal distance between nodes.
+     */
+    private static final int PADDING = 30;
+
+    /**
+     * Vertical distance between a parent node and its child nodes.
+     */
+    private static final int PADDING_PARENT = 60;
+
+    /**
+     * The available layout algorithms.
+     */
+    public enum Algorithm {
+        /**
+         * Tidy tree layout working directly on the Feature Model tree (linear time).
+         */
+        TREE,
+        /**
+         * General directed graph layout of GEF working on the shapes and connections of the diagram.
+         */
+        DIRECTED_GRAPH
+    }
+
+    /**
+     * The layout algorithm to use.
+     */
+    private final Algorithm algorithm;
+
+    /**
+     * Whether only the visible Features are layouted.
+     */
+    private final boolean visibleOnly;
+
+    /**
+     * Creates an instance of {@link LayoutDiagramFeature} using the tree layout of the visible Features.
+     * 
+     * @param fp
+     *            The feature provider.
+     */
+    public LayoutDiagramFeature(IFeatureProvider fp) {
+        this(fp, Algorithm.TREE, true);
+    }
+
+    /**
+     * Creates an instance of {@link LayoutDiagramFeature}.
+     * 
+     * @param fp
+     *            The feature provider.
+     * @param algorithm
+     *            The layout algorithm to use.
+     * @param visibleOnly
+     *            Whether only the visible Features are layouted. The children of collapsed Features
+     *            keep their positions and are restored relative to their collapsed ancestor on
+     *            expanding, so collapsed subtrees do not take part in the layout.
+     */
+    public LayoutDiagramFeature(IFeatureProvider fp, Algorithm algorithm, boolean visibleOnly) {
+        super(fp);
+        this.algorithm = algorithm;
+        this.visibleOnly = visibleOnly;
+    }
+
+    /**
+     * Checks whether the current pictogram element of the given context can be layouted.
+     * 
+     * @param context
+     *            The context.
+     * @return true if update is possible
+     */
+    @Override
+    public boolean canLayout(ILayoutContext context) {
+        PictogramElement pe = context.getPictogramElement();
+        Object obj = getBusinessObjectForPictogramElement(pe);
+        if (obj instanceof FeatureModel) {
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Layouts the whole tree of Feature Model. Maps the Feature Model tree (or the diagram) to a
+     * layout structure, layouts it and maps the new coordinates back to the diagram. If the Feature
+     * Model tree can not be mapped the directed graph layout is used.
+     * 
+     * @param context
+     *            The context.
+     * @return true, if layout process was successfully
+     */
+    @Override
+    public boolean layout(ILayoutContext context) {
+        Object obj = getBusinessObjectForPictogramElement(context.getPictogramElement());
+        LayoutSnapshot snapshot = createSnapshot((FeatureModel) obj);
+        snapshot.compute(new NullProgressMonitor());
+        apply(snapshot);
+        return true;
+    }
+
+    /**
+     * Takes a snapshot of the current diagram geometry. The layout of the snapshot can be computed
+     * without accessing the diagram, e.g. in a background job (see {@link LayoutDiagramJob}).
+     * 
+     * @param featureModel
+     *            The Feature Model of the diagram.
+     * @return The snapshot.
+     */
+    public LayoutSnapshot createSnapshot(FeatureModel featureModel) {
+        TreeLayoutNode root = null;
+        if (this.algorithm == Algorithm.TREE) {
+            root = mapFeatureModelToTree(featureModel);
+        }
+
+        if (root != null) {
+            return new LayoutSnapshot(root, null);
+        }
+        return new LayoutSnapshot(null, mapDiagramToGraph());
+    }
+
+    /**
+     * Maps the computed coordinates of the snapshot back to the diagram and updates the Group
+     * relations. Shapes deleted since the snapshot has been taken are skipped.
+     * 
+     * @param snapshot
+     *            The snapshot with computed layout.
+     */
+    public void apply(LayoutSnapshot snapshot) {
+        List<Feature> moved = new ArrayList<Feature>();
+        if (snapshot.tree != null) {
+            mapTreeCoordinatesToDiagram(snapshot.tree, moved);
+        } else {
+            mapGraphCoordinatesToDiagram(snapshot.graph, moved);
+        }
+
+        // update the relation of every Group with moved Features once
+        for (Group g : BOUtil.getAdjacentGroups(moved)) {
+            Connection c = BOUtil.getPictogramElementForBusinessObject(g, Connection.class, getFeatureProvider());
+            if (c != null) {
+                this.updatePictogramElement(c);
+            }
+        }
+    }
+
+    /**
+     * Computes the tree layout of the given layout tree with the distances of this layout.
+     * 
+     * @param root
+     *            The root of the layout tree.
+     */
+    static void layoutTree(TreeLayoutNode root) {
+        layoutTree(root, new NullProgressMonitor());
+    }
+
+    /**
+     * Computes the tree layout of the given layout tree with the distances of this layout and
+     * reports the progress to the given monitor.
+     * 
+     * @param root
+     *            The root of the layout tree.
+     * @param monitor
+     *            The progress monitor.
+     * @throws OperationCanceledException
+     *             if the monitor has been canceled.
+     */
+    static void layoutTree(TreeLayoutNode root, IProgressMonitor monitor) {
+        new TreeLayout(PADDING, PADDING_PARENT).layout(root, PADDING, PADDING, monitor);
+    }
+
+    /**
+     * Help method to map the Feature Model tree to a tree of layout nodes. In the visible only mode
+     * the children of collapsed Features are skipped, virtualized subtrees are always skipped.
+     * 
+     * @param featureModel
+     *            The Feature Model.
+     * @return The root of the layout tree or <code>null</code> if a Feature has no pictogram element.
+     */
+    private TreeLayoutNode mapFeatureModelToTree(FeatureModel featureModel) {
+        if (featureModel.getRoot() == null) {
+            return null;
+        }
+
+        TreeLayoutNode root = createTreeNode(featureModel.getRoot());
+        if (root == null) {
+            return null;
+        }
+
+        // parallel stacks of the Features to visit and their layout nodes
+        Deque<Feature> features = new ArrayDeque<Feature>();
+        Deque<TreeLayoutNode> nodes = new ArrayDeque<TreeLayoutNode>();
+        features.push(featureModel.getRoot());
+        nodes.push(root);
+        while (!features.isEmpty()) {
+            Feature feature = features.pop();
+            TreeLayoutNode node = nodes.pop();
+            // the virtualized children of a collapsed Feature have no pictogram elements
+            Shape shape = (Shape) node.getData();
+            if (BOUtil.isCollapsed(shape) && (this.visibleOnly || CollapsedSubtree.exists(shape))) {
+                continue;
+            }
+            for (Group g : feature.getChildren()) {
+                for (Feature f : g.getFeatures()) {
+                    TreeLayoutNode child = createTreeNode(f);
+                    if (child == null) {
+                        return null;
+                    }
+                    node.addChild(child);
+                    features.push(f);
+                    nodes.push(child);
+                }
+            }
+        }
+        return root;
+    }
+
+    /**
+     * Help method to create the layout node of a Feature.
+     * 
+     * @param feature
+     *            The Feature.
+     * @return The layout node or <code>null</code> if the Feature has no pictogram element.
+     */
+    private TreeLayoutNode createTreeNode(Feature feature) {
+        ContainerShape cs = BOUtil.getPictogramElementForBusinessObject(feature, ContainerShape.class,
+                getFeatureProvider());
+        if (cs == null) {
+            return null;
+        }
+        GraphicsAlgorithm ga = cs.getGraphicsAlgorithm();
+        return new TreeLayoutNode(cs, ga.getWidth(), ga.getHeight());
+    }
+
+    /**
+     * Help method to map back the layout nodes to the diagram objects.
+     * 
+     * @param root
+     *            The root of the layouted tree.
+     * @param moved
+     *            Collects the moved Features.
+     */
+    private void mapTreeCoordinatesToDiagram(TreeLayoutNode root, List<Feature> moved) {
+        Deque<TreeLayoutNode> stack = new ArrayDeque<TreeLayoutNode>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            TreeLayoutNode node = stack.pop();
+            setBounds((Shape) node.getData(), node.getX(), node.getY(), node.getWidth(), node.getHeight(), moved);
+            for (TreeLayoutNode child : node.getChildren()) {
+                stack.push(child);
+            }
+        }
+    }
+
+    /**
+     * Help method to map back the graph nodes to the diagram objects.
+     * 
+     * @param graph
+     *            The graph to map back.
+     * @param moved
+     *            Collects the moved Features.
+     */
+    @SuppressWarnings("unchecked")
+    private void mapGraphCoordinatesToDiagram(CompoundDirectedGraph graph, List<Feature> moved) {
+        NodeList myNodes = new NodeList();
+        myNodes.addAll(graph.nodes);
+        myNodes.addAll(graph.subgraphs);
+        for (Object object : myNodes) {
+            Node node = (Node) object;
+            setBounds((Shape) node.data, node.x, node.y, node.width, node.height, moved);
+        }
+    }
+
+    /**
+     * Help method to set the bounds of a shape. Only the changed values are set, so unchanged shapes
+     * do not cause any notification. Shapes deleted since the snapshot has been taken are skipped.
+     * 
+     * @param shape
+     *            The shape.
+     * @param x
+     *            The x coordinate.
+     * @param y
+     *            The y coordinate.
+     * @param width
+     *            The width.
+     * @param height
+     *            The height.
+     * @param moved
+     *            Collects the Feature of the shape if the bounds have been changed.
+     */
+    private void setBounds(Shape shape, int x, int y, int width, int height, List<Feature> moved) {
+        if (shape.eResource() == null) {
+            return;
+        }
+
+        GraphicsAlgorithm ga = shape.getGraphicsAlgorithm();
+        boolean changed = false;
+        if (ga.getX() != x) {
+            ga.setX(x);
+            changed = true;
+        }
+        if (ga.getY() != y) {
+            ga.setY(y);
+            changed = true;
+        }
+        if (ga.getWidth() != width) {
+            ga.setWidth(width);
+            changed = true;
+        }
+        if (ga.getHeight() != height) {
+            ga.setHeight(height);
+            changed = true;
+        }
+
+        Object bo = getBusinessObjectForPictogramElement(shape);
+        if (changed && bo instanceof Feature) {
+            moved.add((Feature) bo);
+        }
+    }
+
+    /**
+     * Help method to map diagram objects to a graph nodes. In the visible only mode only the visible
+     * Feature shapes and the connections between them are mapped.
+     * 
+     * @return The graph.
+     */
+    @SuppressWarnings("unchecked")
+    private CompoundDirectedGraph mapDiagramToGraph() {
+        Map<AnchorContainer, Node> shapeToNode = new HashMap<AnchorContainer, Node>();
+        Diagram d = getDiagram();
+        CompoundDirectedGraph dg = new CompoundDirectedGraph();
+        EdgeList edgeList = new EdgeList();
+        NodeList nodeList = new NodeList();
+        EList<Shape> children = d.getChildren();
+
+        for (Shape shape : children) {
+            if (this.visibleOnly && !isVisibleFeatureShape(shape)) {
+                continue;
+            }
+            Node node = new Node();
+            GraphicsAlgorithm ga = shape.getGraphicsAlgorithm();
+            node.x = ga.getX();
+            node.y = ga.getY();
+            node.width = ga.getWidth();
+            node.height = ga.getHeight();
+            node.data = shape;
+            shapeToNode.put(shape, node);
+            nodeList.add(node);
+        }
+
+        EList<Connection> connections = d.getConnections();
+        for (Connection connection : connections) {
+            AnchorContainer source = connection.getStart().getParent();
+            AnchorContainer target = connection.getEnd().getParent();
+            if (!shapeToNode.containsKey(source) || !shapeToNode.containsKey(target)) {
+                continue;
+            }
+            Edge edge = new Edge(shapeToNode.get(source), shapeToNode.get(target));
+            edge.data = connection;
+            edgeList.add(edge);
+        }
+        dg.nodes = nodeList;
+        dg.edges = edgeList;
+        return dg;
+    }
+
+    /**
+     * Checks whether the given shape is a visible Feature shape. Hidden Features and the shapes of
+     * the Group relations are not part of the layout.
+     * 
+     * @param shape
+     *            The shape.
+     * @return true if the shape represents a visible Feature.
+     */
+    private boolean isVisibleFeatureShape(Shape shape) {
+        return shape.isVisible() && getBusinessObjectForPictogramElement(shape) instanceof Feature;
+    }
+
+    /**
+     * A snapshot of the diagram geometry to layout. The snapshot refers to the shapes of the diagram
+     * only to map back the result, computing the layout does not access the diagram.
+     */
+    public static final class LayoutSnapshot {
+
+        /**
+         * The tree to layout, <code>null</code> if the directed graph layout is used.
+         */
+        private final TreeLayoutNode tree;
+
+        /**
+         * The graph to layout, <code>null</code> if the tree layout is used.
+         */
+        private final CompoundDirectedGraph graph;
+
+        /**
+         * Creates an instance of {@link LayoutSnapshot}.
+         * 
+         * @param tree
+         *            The tree to layout.
+         * @param graph
+         *            The graph to layout.
+         */
+        private LayoutSnapshot(TreeLayoutNode tree, CompoundDirectedGraph graph) {
+            this.tree = tree;
+            this.graph = graph;
+        }
+
+        /**
+         * Computes the layout of the snapshot. The tree layout reports its progress and checks for
+         * cancellation while the subtrees are placed, the directed graph layout of GEF cannot be
+         * interrupted and is checked before and after.
+         * 
+         * @param monitor
+         *            The progress monitor.
+         * @throws OperationCanceledException
+         *             if the monitor has been canceled.
+         */
+        public void compute(IProgressMonitor monitor) {
+            SubMonitor progress = SubMonitor.convert(monitor, "Computing layout", 1);
+            try {
+                if (this.tree != null) {
+                    layoutTree(this.tree, progress.newChild(1));
+                } else {
+                    if (progress.isCanceled()) {
+                        throw new OperationCanceledException();
+                    }
+                    this.graph.setDefaultPadding(new Insets(PADDING));
+                    new CompoundDirectedGraphLayout().visit(this.graph);
+                    progress.worked(1);
+                }
+                if (progress.isCanceled()) {
+                    throw new OperationCanceledException();
+                }
+            } finally {
+                monitor.done();
+            }
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package org.eclipse.featuremodel.diagrameditor.features;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
+import org.eclipse.emf.transaction.NotificationFilter;
+import org.eclipse.emf.transaction.RecordingCommand;
+import org.eclipse.emf.transaction.ResourceSetChangeEvent;
+import org.eclipse.emf.transaction.ResourceSetListenerImpl;
+import org.eclipse.emf.transaction.RunnableWithResult;
+import org.eclipse.emf.transaction.TransactionalEditingDomain;
+import org.eclipse.emf.transaction.util.TransactionUtil;
+import org.eclipse.featuremodel.FeatureModel;
+import org.eclipse.featuremodel.diagrameditor.features.LayoutDiagramFeature.LayoutSnapshot;
+import org.eclipse.graphiti.mm.pictograms.Diagram;
+import org.eclipse.graphiti.services.Graphiti;
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * Computes the layout of a Feature Diagram in background. The layout is computed on a snapshot of
+ * the diagram geometry (see {@link LayoutSnapshot}), the result is applied in the UI thread by a
+ * single command, so the layout can be undone in one step. If the diagram has been changed while
+ * the layout was computed, the outdated result is dropped and the layout is computed again on a new
+ * snapshot.
+ * 
+ */
+public class LayoutDiagramJob extends Job {
+
+    /**
+     * The layout feature creating the snapshot and applying the result.
+     */
+    private final LayoutDiagramFeature layoutFeature;
+
+    /**
+     * The snapshot to layout.
+     */
+    private final LayoutSnapshot snapshot;
+
+    /**
+     * The diagram to layout.
+     */
+    private final Diagram diagram;
+
+    /**
+     * The editing domain of the diagram.
+     */
+    private final TransactionalEditingDomain editingDomain;
+
+    /**
+     * Listens for changes of the diagram since the snapshot has been taken.
+     */
+    private final ChangeListener changeListener = new ChangeListener();
+
+    /**
+     * Creates an instance of {@link LayoutDiagramJob}. The job listens for changes of the diagram
+     * from now on, until the result is applied or the job ends without a result (canceled, also
+     * before it has been started, or failed).
+     * 
+     * @param layoutFeature
+     *            The layout feature the snapshot was created with.
+     * @param snapshot
+     *            The snapshot to layout.
+     * @param diagram
+     *            The diagram to layout.
+     */
+    public LayoutDiagramJob(LayoutDiagramFeature layoutFeature, LayoutSnapshot snapshot, Diagram diagram) {
+        super("Layout Feature Diagram");
+        this.layoutFeature = layoutFeature;
+        this.snapshot = snapshot;
+        this.diagram = diagram;
+        this.editingDomain = TransactionUtil.getEditingDomain(diagram);
+        if (this.editingDomain != null) {
+            this.editingDomain.addResourceSetListener(this.changeListener);
+        }
+        addJobChangeListener(new JobChangeAdapter() {
+            @Override
+            public void done(IJobChangeEvent event) {
+                // a successful job removes the listener when the result is applied
+                if (event.getResult() == null || !event.getResult().isOK()) {
+                    removeChangeListener();
+                }
+            }
+        });
+        setUser(true);
+    }
+
+    /**
+     * Computes the layout and schedules the application of the result in the UI thread.
+     * 
+     * @param monitor
+     *            The progress monitor.
+     * @return The status of the job.
+     */
+    @Override
+    protected IStatus run(IProgressMonitor monitor) {
+        try {
+            this.snapshot.compute(monitor);
+        } catch (OperationCanceledException e) {
+            return Status.CANCEL_STATUS;
+        }
+
+        Display.getDefault().asyncExec(new Runnable() {
+            @Override
+            public void run() {
+                apply();
+            }
+        });
+        return Status.OK_STATUS;
+    }
+
+    /**
+     * Applies the computed layout to the diagram in one command. If the diagram has been changed
+     * since the snapshot, a new job computes the layout of the current diagram instead.
+     */
+    private void apply() {
+        removeChangeListener();
+        TransactionalEditingDomain editingDomain = TransactionUtil.getEditingDomain(this.diagram);
+        // the editor has been closed in the meantime
+        if (editingDomain == null || editingDomain != this.editingDomain || this.diagram.eResource() == null) {
+            return;
+        }
+
+        if (this.changeListener.changed) {
+            relayout();
+            return;
+        }
+
+        editingDomain.getCommandStack().execute(new RecordingCommand(editingDomain, "Layout") {
+            @Override
+            protected void doExecute() {
+                LayoutDiagramJob.this.layoutFeature.apply(LayoutDiagramJob.this.snapshot);
+            }
+        });
+    }
+
+    /**
+     * Takes a new snapshot of the diagram and schedules a new job computing its layout.
+     */
+    private void relayout() {
+        final Object bo = Graphiti.getLinkService().getBusinessObjectForLinkedPictogramElement(this.diagram);
+        if (!(bo instanceof FeatureModel)) {
+            return;
+        }
+
+        LayoutSnapshot current;
+        try {
+            current = (LayoutSnapshot) this.editingDomain.runExclusive(new RunnableWithResult.Impl<LayoutSnapshot>() {
+                @Override
+                public void run() {
+                    setResult(LayoutDiagramJob.this.layoutFeature.createSnapshot((FeatureModel) bo));
+                }
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        new LayoutDiagramJob(this.layoutFeature, current, this.diagram).schedule();
+    }
+
+    /**
+     * Stops listening for changes of the diagram.
+     */
+    private void removeChangeListener() {
+        if (this.editingDomain != null) {
+            this.editingDomain.removeResourceSetListener(this.changeListener);
+        }
+    }
+
+    /**
+     * Records whether a transaction has changed the resource set since the snapshot.
+     */
+    private static final class ChangeListener extends ResourceSetListenerImpl {
+
+        /**
+         * Whether the resource set has been changed.
+         */
+        private volatile boolean changed;
+
+        /**
+         * Creates an instance of {@link ChangeListener} ignoring touch notifications.
+         */
+        private ChangeListener() {
+            super(NotificationFilter.NOT_TOUCH);
+        }
+
+        /**
+         * Records the change.
+         * 
+         * @param event
+         *            The event.
+         */
+        @Override
+        public void resourceSetChanged(ResourceSetChangeEvent event) {
+            this.changed = true;
+        }
+    }
+}
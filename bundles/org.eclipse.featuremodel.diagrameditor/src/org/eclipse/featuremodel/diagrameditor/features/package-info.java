@@ -1,8 +1,8 @@
-/**
- * The package of the diagram features.
- * The classes in this package provides diverse functions to create or 
- * to modify a Feature Model and this graphical representation in the diagram.
- * 
- */
-package org.eclipse.featuremodel.diagrameditor.features;
-
+/**
+ * The package of the diagram features.
+ * The classes in this package provides diverse functions to create or 
+ * to modify a Feature Model and this graphical representation in the diagram.
+ * 
+ */
+package org.eclipse.featuremodel.diagrameditor.features;
+
@@ -0,0 +1,369 @@
+package org.eclipse.featuremodel.diagrameditor.layout;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.featuremodel.Feature;
+import org.eclipse.featuremodel.Group;
+import org.eclipse.featuremodel.diagrameditor.utilities.BOUtil;
+import org.eclipse.graphiti.features.IFeatureProvider;
+import org.eclipse.graphiti.mm.algorithms.GraphicsAlgorithm;
+import org.eclipse.graphiti.mm.pictograms.ContainerShape;
+import org.eclipse.graphiti.services.Graphiti;
+
+/**
+ * {@link IncrementalTreeLayout} relayouts only the part of a Feature Diagram affected by an edit. The
+ * subtree of the changed Feature is arranged as a tidy tree (see {@link TreeLayout}) while the
+ * Feature itself keeps its position. Afterwards the ancestors are visited bottom up: the siblings
+ * right of the changed subtree are shifted until their contours do not overlap anymore and the
+ * ancestor is centered above its children again. The walk stops at the first ancestor whose
+ * children do not need to be shifted, so the cost depends on the size of the change and not on the
+ * size of the diagram.
+ * <p>
+ * Collapsed Features are treated as leaves, the hidden descendants keep their positions (or have no
+ * pictogram elements at all, see {@link org.eclipse.featuremodel.diagrameditor.utilities.CollapsedSubtree}).
+ * </p>
+ * 
+ */
+public class IncrementalTreeLayout {
+
+    /**
+     * The feature provider.
+     */
+    private final IFeatureProvider fp;
+
+    /**
+     * The minimal horizontal distance between two Features of the same level.
+     */
+    private final int siblingDistance;
+
+    /**
+     * The layout used for the changed subtree.
+     */
+    private final TreeLayout treeLayout;
+
+    /**
+     * Creates an instance of {@link IncrementalTreeLayout}.
+     * 
+     * @param fp
+     *            The feature provider.
+     * @param siblingDistance
+     *            The minimal horizontal distance between two Features of the same level.
+     * @param levelDistance
+     *            The vertical distance between two levels.
+     */
+    public IncrementalTreeLayout(IFeatureProvider fp, int siblingDistance, int levelDistance) {
+        this.fp = fp;
+        this.siblingDistance = siblingDistance;
+        this.treeLayout = new TreeLayout(siblingDistance, levelDistance);
+    }
+
+    /**
+     * Relayouts the subtree of the given Feature and shifts the surrounding subtrees of its ancestors
+     * as far as needed.
+     * 
+     * @param parent
+     *            The Feature whose children have been changed.
+     * @return The Features whose pictogram elements have been moved.
+     */
+    public Set<Feature> layout(Feature parent) {
+        Set<Feature> moved = new LinkedHashSet<Feature>();
+        if (!layoutSubtree(parent, moved)) {
+            return moved;
+        }
+
+        Feature subtreeRoot = parent;
+        while (subtreeRoot.getParent() != null) {
+            Feature ancestor = subtreeRoot.getParent();
+            if (!separateSiblings(ancestor, subtreeRoot, moved)) {
+                break;
+            }
+            subtreeRoot = ancestor;
+        }
+        return moved;
+    }
+
+    /**
+     * Arranges the visible subtree of the given Feature as a tidy tree. The Feature keeps its
+     * position.
+     * 
+     * @param parent
+     *            The root Feature of the subtree.
+     * @param moved
+     *            Collects the moved Features.
+     * @return true if the subtree has been arranged, false if a Feature has no pictogram element.
+     */
+    private boolean layoutSubtree(Feature parent, Set<Feature> moved) {
+        ContainerShape parentCS = getShape(parent);
+        if (parentCS == null) {
+            return false;
+        }
+
+        // build the layout tree of the visible subtree
+        TreeLayoutNode root = createNode(parentCS);
+        Deque<Feature> features = new ArrayDeque<Feature>();
+        Deque<TreeLayoutNode> nodes = new ArrayDeque<TreeLayoutNode>();
+        features.push(parent);
+        nodes.push(root);
+        while (!features.isEmpty()) {
+            Feature feature = features.pop();
+            TreeLayoutNode node = nodes.pop();
+            // the children of collapsed Features keep their positions or have no pictogram elements
+            if (BOUtil.isCollapsed((ContainerShape) node.getData())) {
+                continue;
+            }
+            for (Feature child : getChildFeatures(feature)) {
+                ContainerShape cs = getShape(child);
+                if (cs == null) {
+                    return false;
+                }
+                TreeLayoutNode childNode = createNode(cs);
+                node.addChild(childNode);
+                features.push(child);
+                nodes.push(childNode);
+            }
+        }
+
+        this.treeLayout.layout(root, 0, 0);
+
+        // map back the coordinates relative to the unchanged position of the parent Feature
+        GraphicsAlgorithm parentGA = parentCS.getGraphicsAlgorithm();
+        int deltaX = parentGA.getX() - root.getX();
+        int deltaY = parentGA.getY() - root.getY();
+        nodes.push(root);
+        while (!nodes.isEmpty()) {
+            TreeLayoutNode node = nodes.pop();
+            ContainerShape cs = (ContainerShape) node.getData();
+            if (setLocation(cs, node.getX() + deltaX, node.getY() + deltaY)) {
+                moved.add(getFeature(cs));
+            }
+            for (TreeLayoutNode child : node.getChildren()) {
+                nodes.push(child);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Shifts the siblings of the given subtree root until the subtrees do not overlap and centers the
+     * ancestor above its children.
+     * 
+     * @param ancestor
+     *            The parent of the subtree root.
+     * @param subtreeRoot
+     *            The root of the changed subtree.
+     * @param moved
+     *            Collects the moved Features.
+     * @return true if the subtrees have been shifted, false if nothing has to be changed.
+     */
+    private boolean separateSiblings(Feature ancestor, Feature subtreeRoot, Set<Feature> moved) {
+        List<Feature> siblings = getChildFeatures(ancestor);
+        int index = siblings.indexOf(subtreeRoot);
+        if (index < 0) {
+            return false;
+        }
+        List<Feature> leftSiblings = siblings.subList(0, index);
+        List<Feature> rightSiblings = siblings.subList(index + 1, siblings.size());
+
+        List<int[]> contour = getContour(Collections.singletonList(subtreeRoot), Integer.MAX_VALUE);
+        int shiftLeft = getRequiredShift(getContour(leftSiblings, contour.size()), contour);
+        int shiftRight = getRequiredShift(contour, getContour(rightSiblings, contour.size()));
+        if (shiftLeft <= 0 && shiftRight <= 0) {
+            return false;
+        }
+
+        // the subtrees are only shifted to the right, so the diagram does not grow to negative
+        // coordinates
+        shiftLeft = Math.max(shiftLeft, 0);
+        shiftRight = Math.max(shiftRight, 0);
+        if (shiftLeft > 0) {
+            translate(Collections.singletonList(subtreeRoot), shiftLeft, moved);
+        }
+        translate(rightSiblings, shiftLeft + shiftRight, moved);
+
+        // center the ancestor above its children
+        ContainerShape ancestorCS = getShape(ancestor);
+        ContainerShape firstCS = getShape(siblings.get(0));
+        ContainerShape lastCS = getShape(siblings.get(siblings.size() - 1));
+        if (ancestorCS == null || firstCS == null || lastCS == null) {
+            return true;
+        }
+        GraphicsAlgorithm first = firstCS.getGraphicsAlgorithm();
+        GraphicsAlgorithm last = lastCS.getGraphicsAlgorithm();
+        GraphicsAlgorithm ga = ancestorCS.getGraphicsAlgorithm();
+        int center = (first.getX() + first.getWidth() / 2 + last.getX() + last.getWidth() / 2) / 2;
+        if (setLocation(ancestorCS, center - ga.getWidth() / 2, ga.getY())) {
+            moved.add(ancestor);
+        }
+        return true;
+    }
+
+    /**
+     * Computes the leftmost and rightmost x coordinate of every level of the visible subtrees of the
+     * given Features.
+     * 
+     * @param roots
+     *            The root Features of the subtrees.
+     * @param maxDepth
+     *            The number of levels to compute.
+     * @return The leftmost and rightmost x coordinate of every level.
+     */
+    private List<int[]> getContour(List<Feature> roots, int maxDepth) {
+        List<int[]> contour = new ArrayList<int[]>();
+        List<ContainerShape> level = new ArrayList<ContainerShape>();
+        for (Feature f : roots) {
+            ContainerShape cs = getShape(f);
+            if (cs != null) {
+                level.add(cs);
+            }
+        }
+
+        while (!level.isEmpty() && contour.size() < maxDepth) {
+            int left = Integer.MAX_VALUE;
+            int right = Integer.MIN_VALUE;
+            List<ContainerShape> nextLevel = new ArrayList<ContainerShape>();
+            for (ContainerShape cs : level) {
+                GraphicsAlgorithm ga = cs.getGraphicsAlgorithm();
+                left = Math.min(left, ga.getX());
+                right = Math.max(right, ga.getX() + ga.getWidth());
+                if (!BOUtil.isCollapsed(cs)) {
+                    for (Feature child : getChildFeatures(getFeature(cs))) {
+                        ContainerShape childCS = getShape(child);
+                        if (childCS != null) {
+                            nextLevel.add(childCS);
+                        }
+                    }
+                }
+            }
+            contour.add(new int[] { left, right });
+            level = nextLevel;
+        }
+        return contour;
+    }
+
+    /**
+     * Computes the distance the right contour has to be shifted so that it keeps the sibling
+     * distance to the left contour on every level.
+     * 
+     * @param leftContour
+     *            The contour of the left subtrees.
+     * @param rightContour
+     *            The contour of the right subtrees.
+     * @return The required shift, not positive if the contours do not overlap.
+     */
+    private int getRequiredShift(List<int[]> leftContour, List<int[]> rightContour) {
+        int shift = Integer.MIN_VALUE;
+        int levels = Math.min(leftContour.size(), rightContour.size());
+        for (int i = 0; i < levels; i++) {
+            shift = Math.max(shift, leftContour.get(i)[1] + this.siblingDistance - rightContour.get(i)[0]);
+        }
+        return shift;
+    }
+
+    /**
+     * Moves the visible subtrees of the given Features horizontally.
+     * 
+     * @param roots
+     *            The root Features of the subtrees.
+     * @param deltaX
+     *            delta in X direction
+     * @param moved
+     *            Collects the moved Features.
+     */
+    private void translate(List<Feature> roots, int deltaX, Set<Feature> moved) {
+        if (deltaX == 0) {
+            return;
+        }
+
+        Deque<Feature> stack = new ArrayDeque<Feature>(roots);
+        while (!stack.isEmpty()) {
+            Feature feature = stack.pop();
+            ContainerShape cs = getShape(feature);
+            if (cs == null) {
+                continue;
+            }
+            GraphicsAlgorithm ga = cs.getGraphicsAlgorithm();
+            ga.setX(ga.getX() + deltaX);
+            moved.add(feature);
+            if (!BOUtil.isCollapsed(cs)) {
+                for (Feature child : getChildFeatures(feature)) {
+                    stack.push(child);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sets the location of the given Feature container shape if it differs from the current one.
+     * 
+     * @param cs
+     *            The container shape.
+     * @param x
+     *            The x coordinate.
+     * @param y
+     *            The y coordinate.
+     * @return true if the location has been changed.
+     */
+    private boolean setLocation(ContainerShape cs, int x, int y) {
+        GraphicsAlgorithm ga = cs.getGraphicsAlgorithm();
+        if (ga.getX() == x && ga.getY() == y) {
+            return false;
+        }
+        Graphiti.getGaService().setLocation(ga, x, y);
+        return true;
+    }
+
+    /**
+     * Creates the layout node of a Feature container shape.
+     * 
+     * @param cs
+     *            The container shape.
+     * @return The layout node.
+     */
+    private TreeLayoutNode createNode(ContainerShape cs) {
+        GraphicsAlgorithm ga = cs.getGraphicsAlgorithm();
+        return new TreeLayoutNode(cs, ga.getWidth(), ga.getHeight());
+    }
+
+    /**
+     * Gets the child Features of the given Feature from the left to the right.
+     * 
+     * @param feature
+     *            The Feature.
+     * @return The child Features.
+     */
+    private List<Feature> getChildFeatures(Feature feature) {
+        List<Feature> result = new ArrayList<Feature>();
+        for (Group g : feature.getChildren()) {
+            result.addAll(g.getFeatures());
+        }
+        return result;
+    }
+
+    /**
+     * Gets the container shape of the given Feature.
+     * 
+     * @param feature
+     *            The Feature.
+     * @return The container shape or <code>null</code> if not exists.
+     */
+    private ContainerShape getShape(Feature feature) {
+        return BOUtil.getPictogramElementForBusinessObject(feature, ContainerShape.class, this.fp);
+    }
+
+    /**
+     * Gets the Feature of the given container shape.
+     * 
+     * @param cs
+     *            The container shape.
+     * @return The Feature.
+     */
+    private Feature getFeature(ContainerShape cs) {
+        return (Feature) this.fp.getBusinessObjectForPictogramElement(cs);
+    }
+}
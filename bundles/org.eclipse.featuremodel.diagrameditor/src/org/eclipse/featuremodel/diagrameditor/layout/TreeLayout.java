@@ -0,0 +1,506 @@
+package org.eclipse.featuremodel.diagrameditor.layout;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.SubMonitor;
+
+/**
+ * {@link TreeLayout} arranges a tree of {@link TreeLayoutNode}s as a tidy tree (Reingold-Tilford
+ * algorithm in the linear time variant of Walker and Buchheim et al.). Parents are centered above
+ * their children, siblings keep their order and subtrees are packed as close as the given distances
+ * allow. The algorithm is implemented without recursion, so the depth of the tree is not limited by
+ * the stack size. The first walk of large trees places independent subtrees in parallel, it only
+ * works on the layout nodes.
+ * 
+ */
+public class TreeLayout {
+
+    /**
+     * The number of nodes processed between two checks for cancellation.
+     */
+    private static final int CHECK_INTERVAL = 256;
+
+    /**
+     * The number of available processors.
+     */
+    private static final int PROCESSORS = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * The minimal number of nodes of a tree placed in parallel.
+     */
+    private static final int PARALLEL_THRESHOLD = 4096;
+
+    /**
+     * The number of independent subtrees per processor placed in parallel, more subtrees than
+     * processors balance subtrees of different sizes.
+     */
+    private static final int SUBTREES_PER_PROCESSOR = 4;
+
+    /**
+     * The minimal horizontal distance between two nodes of the same level.
+     */
+    private final int siblingDistance;
+
+    /**
+     * The vertical distance between two levels.
+     */
+    private final int levelDistance;
+
+    /**
+     * Creates an instance of {@link TreeLayout}.
+     * 
+     * @param siblingDistance
+     *            The minimal horizontal distance between two nodes of the same level.
+     * @param levelDistance
+     *            The vertical distance between two levels.
+     */
+    public TreeLayout(int siblingDistance, int levelDistance) {
+        this.siblingDistance = siblingDistance;
+        this.levelDistance = levelDistance;
+    }
+
+    /**
+     * Computes the positions of all nodes of the tree. The leftmost node is placed at the given x
+     * coordinate and the root at the given y coordinate.
+     * 
+     * @param root
+     *            The root of the tree.
+     * @param originX
+     *            The x coordinate of the left border of the tree.
+     * @param originY
+     *            The y coordinate of the top border of the tree.
+     */
+    public void layout(TreeLayoutNode root, int originX, int originY) {
+        layout(root, originX, originY, new NullProgressMonitor());
+    }
+
+    /**
+     * Computes the positions of all nodes of the tree like {@link #layout(TreeLayoutNode, int, int)}
+     * and reports the progress of the first walk, which places the subtrees, to the given monitor.
+     * 
+     * @param root
+     *            The root of the tree.
+     * @param originX
+     *            The x coordinate of the left border of the tree.
+     * @param originY
+     *            The y coordinate of the top border of the tree.
+     * @param monitor
+     *            The progress monitor.
+     * @throws OperationCanceledException
+     *             if the monitor has been canceled, the positions of the nodes are unchanged then.
+     */
+    public void layout(TreeLayoutNode root, int originX, int originY, IProgressMonitor monitor) {
+        List<TreeLayoutNode> preorder = initialize(root);
+        SubMonitor progress = SubMonitor.convert(monitor, preorder.size());
+
+        // first walk: bottom up, every node places the subtrees of its children
+        if (PROCESSORS > 1 && preorder.size() >= PARALLEL_THRESHOLD) {
+            firstWalkInParallel(preorder, progress);
+        } else {
+            firstWalk(preorder, preorder.size() - 1, progress);
+        }
+        root.prelim = root.midpoint;
+
+        // second walk: top down, sum up the modifiers and compute the final coordinates
+        int[] levelTops = computeLevelTops(preorder, originY);
+        double minLeft = Double.MAX_VALUE;
+        for (TreeLayoutNode v : preorder) {
+            TreeLayoutNode parent = v.getParent();
+            v.modsum = parent == null ? 0 : parent.modsum + parent.mod;
+            minLeft = Math.min(minLeft, v.prelim + v.modsum - v.getWidth() / 2.0);
+        }
+        for (TreeLayoutNode v : preorder) {
+            double left = v.prelim + v.modsum - v.getWidth() / 2.0 - minLeft;
+            v.setLocation(originX + (int) Math.round(left), levelTops[v.depth]);
+        }
+    }
+
+    /**
+     * Resets the working fields of all nodes and lists the nodes in preorder.
+     * 
+     * @param root
+     *            The root of the tree.
+     * @return The nodes in preorder.
+     */
+    private List<TreeLayoutNode> initialize(TreeLayoutNode root) {
+        List<TreeLayoutNode> preorder = new ArrayList<TreeLayoutNode>();
+        Deque<TreeLayoutNode> stack = new ArrayDeque<TreeLayoutNode>();
+        root.number = 1;
+        root.depth = 0;
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            TreeLayoutNode v = stack.pop();
+            v.prelim = 0;
+            v.mod = 0;
+            v.modsum = 0;
+            v.midpoint = 0;
+            v.shift = 0;
+            v.change = 0;
+            v.thread = null;
+            v.ancestor = v;
+            v.index = preorder.size();
+            preorder.add(v);
+
+            List<TreeLayoutNode> children = v.children();
+            for (int i = children.size() - 1; i >= 0; i--) {
+                TreeLayoutNode w = children.get(i);
+                w.number = i + 1;
+                w.depth = v.depth + 1;
+                stack.push(w);
+            }
+        }
+        return preorder;
+    }
+
+    /**
+     * Runs the first walk for the given nodes in reverse preorder, from the given index down to the
+     * first node.
+     * 
+     * @param nodes
+     *            The nodes in preorder.
+     * @param last
+     *            The index of the node to start with.
+     * @param progress
+     *            The progress monitor, one tick per node.
+     * @throws OperationCanceledException
+     *             if the monitor has been canceled.
+     */
+    private void firstWalk(List<TreeLayoutNode> nodes, int last, SubMonitor progress) {
+        for (int i = last; i >= 0; i--) {
+            firstWalk(nodes.get(i));
+            if (i % CHECK_INTERVAL == 0) {
+                if (progress.isCanceled()) {
+                    throw new OperationCanceledException();
+                }
+                progress.worked(Math.min(CHECK_INTERVAL, last + 1 - i));
+            }
+        }
+    }
+
+    /**
+     * Runs the first walk in parallel. The first walk of a node only changes the nodes of its
+     * subtree, so the subtrees below the top levels of the tree are placed in parallel, each in
+     * reverse preorder, and the nodes of the top levels are placed afterwards in the calling thread.
+     * The top levels are expanded level by level until there are enough subtrees for all
+     * processors, so a root with a single child does not prevent the parallel placement.
+     * 
+     * @param preorder
+     *            All nodes of the tree in preorder.
+     * @param progress
+     *            The progress monitor, one tick per node.
+     * @throws OperationCanceledException
+     *             if the monitor has been canceled or the calling thread has been interrupted.
+     */
+    private void firstWalkInParallel(List<TreeLayoutNode> preorder, final SubMonitor progress) {
+        // the expanded nodes of the top levels in breadth-first order and the subtrees below
+        List<TreeLayoutNode> top = new ArrayList<TreeLayoutNode>();
+        List<TreeLayoutNode> subtrees = new ArrayList<TreeLayoutNode>();
+        subtrees.add(preorder.get(0));
+        while (subtrees.size() < PROCESSORS * SUBTREES_PER_PROCESSOR && hasInnerNode(subtrees)) {
+            List<TreeLayoutNode> next = new ArrayList<TreeLayoutNode>();
+            for (TreeLayoutNode v : subtrees) {
+                if (v.children().isEmpty()) {
+                    next.add(v);
+                } else {
+                    top.add(v);
+                    next.addAll(v.children());
+                }
+            }
+            subtrees = next;
+        }
+
+        int[] sizes = computeSubtreeSizes(preorder);
+        List<Callable<Integer>> walks = new ArrayList<Callable<Integer>>();
+        for (final TreeLayoutNode v : subtrees) {
+            final List<TreeLayoutNode> nodes = preorder.subList(v.index, v.index + sizes[v.index]);
+            walks.add(new Callable<Integer>() {
+                @Override
+                public Integer call() {
+                    for (int i = nodes.size() - 1; i >= 0; i--) {
+                        firstWalk(nodes.get(i));
+                        if (i % CHECK_INTERVAL == 0
+                                && (progress.isCanceled() || Thread.currentThread().isInterrupted())) {
+                            throw new OperationCanceledException();
+                        }
+                    }
+                    return nodes.size();
+                }
+            });
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(PROCESSORS, walks.size()));
+        try {
+            for (Future<Integer> walk : executor.invokeAll(walks)) {
+                progress.worked(walk.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OperationCanceledException();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // the top levels in reverse breadth-first order, every child is placed before its parent
+        firstWalk(top, top.size() - 1, progress);
+    }
+
+    /**
+     * Checks whether one of the given nodes has children.
+     * 
+     * @param nodes
+     *            The nodes.
+     * @return true if a node has children.
+     */
+    private static boolean hasInnerNode(List<TreeLayoutNode> nodes) {
+        for (TreeLayoutNode v : nodes) {
+            if (!v.children().isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Computes the number of nodes of the subtree of every node.
+     * 
+     * @param preorder
+     *            All nodes of the tree in preorder.
+     * @return The subtree sizes by preorder index.
+     */
+    private static int[] computeSubtreeSizes(List<TreeLayoutNode> preorder) {
+        int[] sizes = new int[preorder.size()];
+        for (int i = preorder.size() - 1; i >= 0; i--) {
+            sizes[i]++;
+            TreeLayoutNode parent = preorder.get(i).getParent();
+            if (parent != null) {
+                sizes[parent.index] += sizes[i];
+            }
+        }
+        return sizes;
+    }
+
+    /**
+     * Computes the y coordinate of every level. The height of a level is given by its highest node.
+     * 
+     * @param preorder
+     *            All nodes of the tree.
+     * @param originY
+     *            The y coordinate of the root level.
+     * @return The y coordinate of every level.
+     */
+    private int[] computeLevelTops(List<TreeLayoutNode> preorder, int originY) {
+        int levels = 0;
+        for (TreeLayoutNode v : preorder) {
+            levels = Math.max(levels, v.depth + 1);
+        }
+        int[] levelHeights = new int[levels];
+        for (TreeLayoutNode v : preorder) {
+            levelHeights[v.depth] = Math.max(levelHeights[v.depth], v.getHeight());
+        }
+        int[] levelTops = new int[levels];
+        int y = originY;
+        for (int i = 0; i < levels; i++) {
+            levelTops[i] = y;
+            y += levelHeights[i] + this.levelDistance;
+        }
+        return levelTops;
+    }
+
+    /**
+     * Places the already arranged subtrees of the children of the given node side by side and
+     * computes the midpoint of the children.
+     * 
+     * @param v
+     *            The node.
+     */
+    private void firstWalk(TreeLayoutNode v) {
+        List<TreeLayoutNode> children = v.children();
+        if (children.isEmpty()) {
+            return;
+        }
+
+        TreeLayoutNode defaultAncestor = children.get(0);
+        TreeLayoutNode leftSibling = null;
+        for (TreeLayoutNode w : children) {
+            if (leftSibling == null) {
+                w.prelim = w.midpoint;
+            } else {
+                w.prelim = leftSibling.prelim + distance(leftSibling, w);
+                if (!w.children().isEmpty()) {
+                    w.mod = w.prelim - w.midpoint;
+                }
+                defaultAncestor = apportion(w, leftSibling, defaultAncestor, v);
+            }
+            leftSibling = w;
+        }
+        executeShifts(v);
+        v.midpoint = (v.firstChild().prelim + v.lastChild().prelim) / 2;
+    }
+
+    /**
+     * Moves the subtree of the given node to the right until it does not overlap with the subtrees
+     * of its left siblings.
+     * 
+     * @param v
+     *            The node.
+     * @param leftSibling
+     *            The left sibling of the node.
+     * @param defaultAncestor
+     *            The default ancestor.
+     * @param parent
+     *            The parent of the node.
+     * @return The new default ancestor.
+     */
+    private TreeLayoutNode apportion(TreeLayoutNode v, TreeLayoutNode leftSibling, TreeLayoutNode defaultAncestor,
+            TreeLayoutNode parent) {
+        TreeLayoutNode vip = v; // inside right
+        TreeLayoutNode vop = v; // outside right
+        TreeLayoutNode vim = leftSibling; // inside left
+        TreeLayoutNode vom = parent.firstChild(); // outside left
+        double sip = vip.mod;
+        double sop = vop.mod;
+        double sim = vim.mod;
+        double som = vom.mod;
+
+        TreeLayoutNode ancestor = defaultAncestor;
+        while (nextRight(vim) != null && nextLeft(vip) != null) {
+            vim = nextRight(vim);
+            vip = nextLeft(vip);
+            vom = nextLeft(vom);
+            vop = nextRight(vop);
+            vop.ancestor = v;
+            double shift = (vim.prelim + sim) - (vip.prelim + sip) + distance(vim, vip);
+            if (shift > 0) {
+                moveSubtree(ancestor(vim, parent, ancestor), v, shift);
+                sip += shift;
+                sop += shift;
+            }
+            sim += vim.mod;
+            sip += vip.mod;
+            som += vom.mod;
+            sop += vop.mod;
+        }
+
+        if (nextRight(vim) != null && nextRight(vop) == null) {
+            vop.thread = nextRight(vim);
+            vop.mod += sim - sop;
+        }
+        if (nextLeft(vip) != null && nextLeft(vom) == null) {
+            vom.thread = nextLeft(vip);
+            vom.mod += sip - som;
+            ancestor = v;
+        }
+        return ancestor;
+    }
+
+    /**
+     * Shifts the subtree of a node to the right and records the shift to be distributed among the
+     * siblings in between.
+     * 
+     * @param wm
+     *            The left node.
+     * @param wp
+     *            The right node to shift.
+     * @param shift
+     *            The shift distance.
+     */
+    private void moveSubtree(TreeLayoutNode wm, TreeLayoutNode wp, double shift) {
+        int subtrees = wp.number - wm.number;
+        wp.change -= shift / subtrees;
+        wp.shift += shift;
+        wm.change += shift / subtrees;
+        wp.prelim += shift;
+        wp.mod += shift;
+    }
+
+    /**
+     * Distributes the recorded shifts among the children of the given node.
+     * 
+     * @param v
+     *            The node.
+     */
+    private void executeShifts(TreeLayoutNode v) {
+        double shift = 0;
+        double change = 0;
+        List<TreeLayoutNode> children = v.children();
+        for (int i = children.size() - 1; i >= 0; i--) {
+            TreeLayoutNode w = children.get(i);
+            w.prelim += shift;
+            w.mod += shift;
+            change += w.change;
+            shift += w.shift + change;
+        }
+    }
+
+    /**
+     * Gets the greatest distinct ancestor of the inside left node that is a sibling of the currently
+     * apportioned node.
+     * 
+     * @param vim
+     *            The inside left node.
+     * @param parent
+     *            The parent of the apportioned node.
+     * @param defaultAncestor
+     *            The default ancestor.
+     * @return The ancestor.
+     */
+    private TreeLayoutNode ancestor(TreeLayoutNode vim, TreeLayoutNode parent, TreeLayoutNode defaultAncestor) {
+        if (vim.ancestor.getParent() == parent) {
+            return vim.ancestor;
+        }
+        return defaultAncestor;
+    }
+
+    /**
+     * Gets the next node on the left contour.
+     * 
+     * @param v
+     *            The node.
+     * @return The next node or <code>null</code> if the contour ends.
+     */
+    private static TreeLayoutNode nextLeft(TreeLayoutNode v) {
+        TreeLayoutNode first = v.firstChild();
+        return first != null ? first : v.thread;
+    }
+
+    /**
+     * Gets the next node on the right contour.
+     * 
+     * @param v
+     *            The node.
+     * @return The next node or <code>null</code> if the contour ends.
+     */
+    private static TreeLayoutNode nextRight(TreeLayoutNode v) {
+        TreeLayoutNode last = v.lastChild();
+        return last != null ? last : v.thread;
+    }
+
+    /**
+     * Gets the minimal distance between the centers of two neighboring nodes.
+     * 
+     * @param left
+     *            The left node.
+     * @param right
+     *            The right node.
+     * @return The distance.
+     */
+    private double distance(TreeLayoutNode left, TreeLayoutNode right) {
+        return (left.getWidth() + right.getWidth()) / 2.0 + this.siblingDistance;
+    }
+}
@@ -0,0 +1,235 @@
+package org.eclipse.featuremodel.diagrameditor.layout;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A node of the tree processed by {@link TreeLayout}. A node carries the size of the figure it
+ * stands for and receives the computed position of the top left corner of the figure.
+ * 
+ */
+public class TreeLayoutNode {
+
+    /**
+     * The object the node stands for (e.g. the shape of a Feature).
+     */
+    private final Object data;
+
+    /**
+     * The width of the node.
+     */
+    private final int width;
+
+    /**
+     * The height of the node.
+     */
+    private final int height;
+
+    /**
+     * The children of the node from the left to the right.
+     */
+    private final List<TreeLayoutNode> children = new ArrayList<TreeLayoutNode>();
+
+    /**
+     * The parent of the node, <code>null</code> for the root.
+     */
+    private TreeLayoutNode parent;
+
+    /**
+     * The computed x coordinate of the top left corner.
+     */
+    private int x;
+
+    /**
+     * The computed y coordinate of the top left corner.
+     */
+    private int y;
+
+    // working fields of the layout algorithm
+
+    /**
+     * The position of the node among its siblings (starting with 1).
+     */
+    int number;
+
+    /**
+     * The level of the node (the root is on level 0).
+     */
+    int depth;
+
+    /**
+     * The position of the node in the preorder of the tree.
+     */
+    int index;
+
+    /**
+     * The preliminary x coordinate of the node center relative to its parent.
+     */
+    double prelim;
+
+    /**
+     * The modifier applied to all descendants of the node.
+     */
+    double mod;
+
+    /**
+     * The sum of modifiers of all ancestors of the node.
+     */
+    double modsum;
+
+    /**
+     * The preliminary x coordinate of the center between the leftmost and the rightmost child.
+     */
+    double midpoint;
+
+    /**
+     * The shift of the node caused by the apportion of a right sibling.
+     */
+    double shift;
+
+    /**
+     * The change of shift distributed among the siblings between two apportioned subtrees.
+     */
+    double change;
+
+    /**
+     * The next node on the contour if the node is a leaf, <code>null</code> otherwise.
+     */
+    TreeLayoutNode thread;
+
+    /**
+     * The greatest distinct ancestor used while apportioning subtrees.
+     */
+    TreeLayoutNode ancestor;
+
+    /**
+     * Creates an instance of {@link TreeLayoutNode}.
+     * 
+     * @param data
+     *            The object the node stands for.
+     * @param width
+     *            The width of the node.
+     * @param height
+     *            The height of the node.
+     */
+    public TreeLayoutNode(Object data, int width, int height) {
+        this.data = data;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Appends a child right of the existing children.
+     * 
+     * @param child
+     *            The child to append.
+     */
+    public void addChild(TreeLayoutNode child) {
+        child.parent = this;
+        this.children.add(child);
+    }
+
+    /**
+     * Gets the object the node stands for.
+     * 
+     * @return The object.
+     */
+    public Object getData() {
+        return this.data;
+    }
+
+    /**
+     * Gets the width of the node.
+     * 
+     * @return The width.
+     */
+    public int getWidth() {
+        return this.width;
+    }
+
+    /**
+     * Gets the height of the node.
+     * 
+     * @return The height.
+     */
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+     * Gets the children of the node from the left to the right.
+     * 
+     * @return The children.
+     */
+    public List<TreeLayoutNode> getChildren() {
+        return Collections.unmodifiableList(this.children);
+    }
+
+    /**
+     * Gets the parent of the node.
+     * 
+     * @return The parent or <code>null</code> if the node is the root.
+     */
+    public TreeLayoutNode getParent() {
+        return this.parent;
+    }
+
+    /**
+     * Gets the computed x coordinate of the top left corner.
+     * 
+     * @return The x coordinate.
+     */
+    public int getX() {
+        return this.x;
+    }
+
+    /**
+     * Gets the computed y coordinate of the top left corner.
+     * 
+     * @return The y coordinate.
+     */
+    public int getY() {
+        return this.y;
+    }
+
+    /**
+     * Sets the computed position of the top left corner.
+     * 
+     * @param x
+     *            The x coordinate.
+     * @param y
+     *            The y coordinate.
+     */
+    void setLocation(int x, int y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Gets the first child of the node.
+     * 
+     * @return The first child or <code>null</code> if the node is a leaf.
+     */
+    TreeLayoutNode firstChild() {
+        return this.children.isEmpty() ? null : this.children.get(0);
+    }
+
+    /**
+     * Gets the last child of the node.
+     * 
+     * @return The last child or <code>null</code> if the node is a leaf.
+     */
+    TreeLayoutNode lastChild() {
+        return this.children.isEmpty() ? null : this.children.get(this.children.size() - 1);
+    }
+
+    /**
+     * Gets the children list the layout algorithm works on.
+     * 
+     * @return The modifiable children list.
+     */
+    List<TreeLayoutNode> children() {
+        return this.children;
+    }
+}
@@ -0,0 +1,7 @@
+/**
+ * The package of the diagram layout.
+ * The classes in this package provides layout algorithms working directly 
+ * on the tree structure of a Feature Model.
+ * 
+ */
+package org.eclipse.featuremodel.diagrameditor.layout;
@@ -1,6 +1,6 @@
-/**
- * This package contains classes to control the plug-in life cycle. 
- * 
- */
-package org.eclipse.featuremodel.diagrameditor;
-
+/**
+ * This package contains classes to control the plug-in life cycle. 
+ * 
+ */
+package org.eclipse.featuremodel.diagrameditor;
+
@@ -0,0 +1,154 @@
+package org.eclipse.featuremodel.diagrameditor.utilities;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.graphiti.mm.Property;
+import org.eclipse.graphiti.mm.pictograms.Anchor;
+import org.eclipse.graphiti.mm.pictograms.BoxRelativeAnchor;
+import org.eclipse.graphiti.mm.pictograms.ContainerShape;
+import org.eclipse.graphiti.mm.pictograms.PictogramsPackage;
+
+/**
+ * {@link AnchorSlots} caches the input and output anchors of a Feature figure. The slots are
+ * attached to the container shape of the Feature as an adapter and are cleared whenever the anchors
+ * of the container shape change, so the anchor properties are only scanned once per figure.
+ * 
+ */
+public final class AnchorSlots extends AdapterImpl {
+
+    /**
+     * The cached input anchor.
+     */
+    private Anchor inputAnchor;
+
+    /**
+     * The cached output anchor.
+     */
+    private Anchor outputAnchor;
+
+    /**
+     * Creates an instance of {@link AnchorSlots}.
+     */
+    private AnchorSlots() {
+    }
+
+    /**
+     * Gets the anchor slots of the given container shape. The slots are created and attached to the
+     * container shape on first access.
+     * 
+     * @param cs
+     *            The container of anchors.
+     * @return The anchor slots.
+     */
+    public static AnchorSlots getSlots(ContainerShape cs) {
+        AnchorSlots slots = (AnchorSlots) EcoreUtil.getExistingAdapter(cs, AnchorSlots.class);
+        if (slots == null) {
+            slots = new AnchorSlots();
+            cs.eAdapters().add(slots);
+        }
+        return slots;
+    }
+
+    /**
+     * Gets the input anchor of the container shape.
+     * 
+     * @param cs
+     *            The container of anchors.
+     * @return The input anchor or <code>null</code> if not exists.
+     */
+    public Anchor getInputAnchor(ContainerShape cs) {
+        if (!isValid(this.inputAnchor, cs)) {
+            this.inputAnchor = findAnchor(cs, Properties.PROP_VAL_ANCHOR_TYPE_INPUT);
+        }
+        return this.inputAnchor;
+    }
+
+    /**
+     * Gets the output anchor of the container shape.
+     * 
+     * @param cs
+     *            The container of anchors.
+     * @return The output anchor or <code>null</code> if not exists.
+     */
+    public Anchor getOutputAnchor(ContainerShape cs) {
+        if (!isValid(this.outputAnchor, cs)) {
+            this.outputAnchor = findAnchor(cs, Properties.PROP_VAL_ANCHOR_TYPE_OUTPUT);
+        }
+        return this.outputAnchor;
+    }
+
+    /**
+     * Fills the slots with already known anchors, e.g. directly after creating a Feature figure.
+     * 
+     * @param input
+     *            The input anchor.
+     * @param output
+     *            The output anchor.
+     */
+    public void setAnchors(Anchor input, Anchor output) {
+        this.inputAnchor = input;
+        this.outputAnchor = output;
+    }
+
+    /**
+     * Checks whether this adapter is of the given type.
+     * 
+     * @param type
+     *            the type
+     * @return true if the type is {@link AnchorSlots}
+     */
+    @Override
+    public boolean isAdapterForType(Object type) {
+        return type == AnchorSlots.class;
+    }
+
+    /**
+     * Clears the slots if the anchors of the container shape have been changed.
+     * 
+     * @param notification
+     *            the notification
+     */
+    @Override
+    public void notifyChanged(Notification notification) {
+        if (notification.getFeature() == PictogramsPackage.Literals.ANCHOR_CONTAINER__ANCHORS) {
+            this.inputAnchor = null;
+            this.outputAnchor = null;
+        }
+    }
+
+    /**
+     * Checks whether the cached anchor still belongs to the container shape.
+     * 
+     * @param anchor
+     *            The cached anchor.
+     * @param cs
+     *            The container of anchors.
+     * @return true if the anchor can be used.
+     */
+    private static boolean isValid(Anchor anchor, ContainerShape cs) {
+        return anchor != null && anchor.getParent() == cs;
+    }
+
+    /**
+     * Looks up a box relative anchor of the given type by scanning the anchor properties.
+     * 
+     * @param cs
+     *            The container of anchor.
+     * @param type
+     *            The type of anchor ("input", "output")
+     * @return The anchor or <code>null</code> if not exists.
+     */
+    private static Anchor findAnchor(ContainerShape cs, String type) {
+        for (Anchor a : cs.getAnchors()) {
+            if (a instanceof BoxRelativeAnchor) {
+                for (Property p : ((BoxRelativeAnchor) a).getProperties()) {
+                    if (Properties.PROP_KEY_ANCHOR_TYPE.equals(p.getKey()) && type.equals(p.getValue())) {
+                        return a;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,353 @@
+package org.eclipse.featuremodel.diagrameditor.utilities;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.featuremodel.Feature;
+import org.eclipse.graphiti.mm.pictograms.ContainerShape;
+import org.eclipse.graphiti.mm.pictograms.Diagram;
+import org.eclipse.graphiti.mm.pictograms.PictogramLink;
+import org.eclipse.graphiti.mm.pictograms.Shape;
+import org.eclipse.graphiti.services.Graphiti;
+import org.eclipse.graphiti.services.IPeService;
+
+/**
+ * {@link CollapseStateTable} keeps the collapse state of all Features of a diagram in one table.
+ * For every collapsed Feature the table holds the position the Feature had when it was collapsed
+ * (the anchor to restore the positions of its child Features on expand), Features not in the table
+ * are expanded. The Features are identified by their ids.
+ * <p>
+ * The table is persisted as the single property {@link Properties#PROP_KEY_COLLAPSE_STATE} of the
+ * diagram and cached by an adapter of the diagram, so a lookup is a hash lookup instead of scanning
+ * the properties of a pictogram element. The cache is re-read whenever the property has been
+ * changed by somebody else (e.g. by undo). Diagrams storing the state in the properties
+ * {@link Properties#PROP_KEY_CONTAINER_TYPE}, {@link Properties#PROP_KEY_CONTAINER_INIT_X} and
+ * {@link Properties#PROP_KEY_CONTAINER_INIT_Y} of every Feature container shape are read as well,
+ * these properties are removed with the first change of the table. Features collapsed in this
+ * format without an id get an id then.
+ * </p>
+ * <p>
+ * Changes of the table are kept in memory until {@link #flush()} is called, so a command changing
+ * the state of many Features writes the property once.
+ * </p>
+ * 
+ */
+public final class CollapseStateTable extends AdapterImpl {
+
+    /**
+     * Separator of the entries in the property value.
+     */
+    private static final char ENTRY_SEPARATOR = ';';
+
+    /**
+     * Separator of the fields of an entry in the property value.
+     */
+    private static final char FIELD_SEPARATOR = ',';
+
+    /**
+     * The diagram the table belongs to.
+     */
+    private final Diagram diagram;
+
+    /**
+     * The positions of the collapsed Features by Feature id.
+     */
+    private final Map<String, int[]> entries = new HashMap<String, int[]>();
+
+    /**
+     * The property value the entries have been read from or written to.
+     */
+    private String value;
+
+    /**
+     * Whether the entries have been read at all.
+     */
+    private boolean loaded;
+
+    /**
+     * Whether the entries have been changed since the last write.
+     */
+    private boolean dirty;
+
+    /**
+     * The Feature container shapes carrying the state in the legacy properties.
+     */
+    private final List<Shape> legacyShapes = new ArrayList<Shape>();
+
+    /**
+     * The positions of the Features collapsed in the legacy properties which have no id yet.
+     */
+    private final Map<Feature, int[]> legacyEntries = new HashMap<Feature, int[]>();
+
+    /**
+     * Creates an instance of {@link CollapseStateTable}.
+     * 
+     * @param diagram
+     *            The diagram.
+     */
+    private CollapseStateTable(Diagram diagram) {
+        this.diagram = diagram;
+    }
+
+    /**
+     * Gets the table of the given diagram. The table is created and attached to the diagram on first
+     * access.
+     * 
+     * @param diagram
+     *            The diagram.
+     * @return The table of the diagram.
+     */
+    public static CollapseStateTable getTable(Diagram diagram) {
+        CollapseStateTable table = (CollapseStateTable) EcoreUtil.getExistingAdapter(diagram,
+                CollapseStateTable.class);
+        if (table == null) {
+            table = new CollapseStateTable(diagram);
+            diagram.eAdapters().add(table);
+        }
+        return table;
+    }
+
+    /**
+     * Checks whether the given Feature is collapsed.
+     * 
+     * @param feature
+     *            The Feature.
+     * @return <code>true</code> if the Feature is collapsed.
+     */
+    public boolean isCollapsed(Feature feature) {
+        return getEntry(feature) != null;
+    }
+
+    /**
+     * Gets the position the given Feature had when it was collapsed.
+     * 
+     * @param feature
+     *            The collapsed Feature.
+     * @return The x and y coordinate or <code>null</code> if the Feature is not collapsed.
+     */
+    public int[] getAnchor(Feature feature) {
+        int[] entry = getEntry(feature);
+        return entry == null ? null : new int[] { entry[0], entry[1] };
+    }
+
+    /**
+     * Marks the given Feature as collapsed. The change is stored by {@link #flush()}.
+     * 
+     * @param feature
+     *            The Feature, it must have an id.
+     * @param x
+     *            The x coordinate of the Feature at collapsing.
+     * @param y
+     *            The y coordinate of the Feature at collapsing.
+     * @throws IllegalArgumentException
+     *             if the Feature has no id.
+     */
+    public void setCollapsed(Feature feature, int x, int y) {
+        if (!hasId(feature)) {
+            throw new IllegalArgumentException("The Feature " + feature.getName() + " has no id");
+        }
+        sync();
+        this.entries.put(feature.getId(), new int[] { x, y });
+        this.dirty = true;
+    }
+
+    /**
+     * Marks the given Feature as expanded. The change is stored by {@link #flush()}.
+     * 
+     * @param feature
+     *            The Feature.
+     */
+    public void setExpanded(Feature feature) {
+        sync();
+        boolean removed = this.legacyEntries.remove(feature) != null;
+        if (hasId(feature)) {
+            removed |= this.entries.remove(feature.getId()) != null;
+        }
+        if (removed) {
+            this.dirty = true;
+        }
+    }
+
+    /**
+     * Stores the changed table as property of the diagram. Must be called in the command changing
+     * the table.
+     */
+    public void flush() {
+        if (this.dirty) {
+            write();
+        }
+    }
+
+    /**
+     * Checks whether this adapter is of the given type.
+     * 
+     * @param type
+     *            The type.
+     * @return true if the type is {@link CollapseStateTable}
+     */
+    @Override
+    public boolean isAdapterForType(Object type) {
+        return type == CollapseStateTable.class;
+    }
+
+    /**
+     * Gets the entry of the given Feature.
+     * 
+     * @param feature
+     *            The Feature.
+     * @return The entry or <code>null</code> if the Feature is not collapsed.
+     */
+    private int[] getEntry(Feature feature) {
+        sync();
+        // a legacy entry is kept by Feature, even if the Feature got an id meanwhile
+        int[] entry = this.legacyEntries.get(feature);
+        if (entry == null && hasId(feature)) {
+            entry = this.entries.get(feature.getId());
+        }
+        return entry;
+    }
+
+    /**
+     * Checks whether the given Feature has an id.
+     * 
+     * @param feature
+     *            The Feature.
+     * @return true if the id is neither <code>null</code> nor empty.
+     */
+    private static boolean hasId(Feature feature) {
+        return feature.getId() != null && !feature.getId().isEmpty();
+    }
+
+    /**
+     * Re-reads the entries if the property has been changed since the last read or write.
+     */
+    private void sync() {
+        String current = Graphiti.getPeService().getPropertyValue(this.diagram, Properties.PROP_KEY_COLLAPSE_STATE);
+        if (this.loaded && current == this.value) {
+            return;
+        }
+
+        this.dirty = false;
+        this.entries.clear();
+        this.legacyShapes.clear();
+        this.legacyEntries.clear();
+        if (current == null) {
+            readLegacyProperties();
+        } else {
+            for (String entry : current.split(String.valueOf(ENTRY_SEPARATOR))) {
+                String[] fields = entry.split(String.valueOf(FIELD_SEPARATOR));
+                if (fields.length < 3) {
+                    continue;
+                }
+                try {
+                    this.entries.put(CollapsedSubtree.unescape(fields[0]),
+                            new int[] { Integer.parseInt(fields[1]), Integer.parseInt(fields[2]) });
+                } catch (NumberFormatException e) {
+                    // skip the damaged entry, the Feature is shown as expanded
+                    continue;
+                }
+            }
+        }
+        this.value = current;
+        this.loaded = true;
+    }
+
+    /**
+     * Reads the state from the properties of the Feature container shapes.
+     */
+    private void readLegacyProperties() {
+        IPeService peService = Graphiti.getPeService();
+        for (Shape shape : this.diagram.getChildren()) {
+            if (!(shape instanceof ContainerShape)) {
+                continue;
+            }
+            String type = peService.getPropertyValue(shape, Properties.PROP_KEY_CONTAINER_TYPE);
+            if (Properties.PROP_VAL_CONTAINER_TYPE_EXPANDED.equals(type)) {
+                this.legacyShapes.add(shape);
+            } else if (Properties.PROP_VAL_CONTAINER_TYPE_COLLAPSED.equals(type)) {
+                Feature feature = getFeature(shape);
+                if (feature == null) {
+                    // keep the properties, they cannot be migrated
+                    continue;
+                }
+                this.legacyShapes.add(shape);
+                int x = shape.getGraphicsAlgorithm().getX();
+                int y = shape.getGraphicsAlgorithm().getY();
+                String initX = peService.getPropertyValue(shape, Properties.PROP_KEY_CONTAINER_INIT_X);
+                String initY = peService.getPropertyValue(shape, Properties.PROP_KEY_CONTAINER_INIT_Y);
+                try {
+                    if (initX != null && initY != null) {
+                        x = Integer.parseInt(initX);
+                        y = Integer.parseInt(initY);
+                    }
+                } catch (NumberFormatException e) {
+                    // keep the current position
+                }
+                if (hasId(feature)) {
+                    this.entries.put(feature.getId(), new int[] { x, y });
+                } else {
+                    this.legacyEntries.put(feature, new int[] { x, y });
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the Feature linked with the given shape.
+     * 
+     * @param shape
+     *            The shape.
+     * @return The Feature or <code>null</code> if the shape does not represent a Feature.
+     */
+    private static Feature getFeature(Shape shape) {
+        PictogramLink link = shape.getLink();
+        if (link != null) {
+            for (Object bo : link.getBusinessObjects()) {
+                if (bo instanceof Feature) {
+                    return (Feature) bo;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Stores the entries as property of the diagram and removes the legacy properties. The Features
+     * collapsed in the legacy properties without an id get an id, so their entries can be stored.
+     */
+    private void write() {
+        for (Map.Entry<Feature, int[]> e : this.legacyEntries.entrySet()) {
+            Feature feature = e.getKey();
+            if (!hasId(feature)) {
+                feature.setId(IdGen.generate());
+            }
+            this.entries.put(feature.getId(), e.getValue());
+        }
+        this.legacyEntries.clear();
+
+        IPeService peService = Graphiti.getPeService();
+        for (Shape shape : this.legacyShapes) {
+            peService.removeProperty(shape, Properties.PROP_KEY_CONTAINER_TYPE);
+            peService.removeProperty(shape, Properties.PROP_KEY_CONTAINER_INIT_X);
+            peService.removeProperty(shape, Properties.PROP_KEY_CONTAINER_INIT_Y);
+        }
+        this.legacyShapes.clear();
+
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<String, int[]> e : this.entries.entrySet()) {
+            if (builder.length() > 0) {
+                builder.append(ENTRY_SEPARATOR);
+            }
+            CollapsedSubtree.escape(e.getKey(), builder);
+            builder.append(FIELD_SEPARATOR).append(e.getValue()[0]);
+            builder.append(FIELD_SEPARATOR).append(e.getValue()[1]);
+        }
+        this.value = builder.toString();
+        this.dirty = false;
+        peService.setPropertyValue(this.diagram, Properties.PROP_KEY_COLLAPSE_STATE, this.value);
+    }
+}
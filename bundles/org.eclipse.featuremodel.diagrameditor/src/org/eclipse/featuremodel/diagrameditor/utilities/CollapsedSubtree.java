@@ -0,0 +1,306 @@
+package org.eclipse.featuremodel.diagrameditor.utilities;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.featuremodel.Feature;
+import org.eclipse.featuremodel.Group;
+import org.eclipse.graphiti.mm.pictograms.PictogramElement;
+import org.eclipse.graphiti.services.Graphiti;
+
+/**
+ * {@link CollapsedSubtree} is the compact record of a collapsed subtree whose pictogram elements
+ * have been deleted. For every Feature of the subtree it keeps the position relative to the
+ * collapsed Feature and whether the Feature itself was collapsed, so the pictogram elements can be
+ * re-created at their former positions on expand. The Features are identified by their ids. The
+ * record is stored as property {@link Properties#PROP_KEY_COLLAPSED_SUBTREE} of the collapsed
+ * Feature pictogram element.
+ * 
+ */
+public final class CollapsedSubtree {
+
+    /**
+     * Separator of the entries in the property value.
+     */
+    private static final char ENTRY_SEPARATOR = ';';
+
+    /**
+     * Separator of the fields of an entry in the property value.
+     */
+    private static final char FIELD_SEPARATOR = ',';
+
+    /**
+     * Escape character for separators in ids.
+     */
+    private static final char ESCAPE = '%';
+
+    /**
+     * Flag of collapsed Features in the property value.
+     */
+    private static final String COLLAPSED_FLAG = "c";
+
+    /**
+     * The entries by Feature id.
+     */
+    private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>();
+
+    /**
+     * Reads the record of the given Feature pictogram element.
+     * 
+     * @param pe
+     *            The Feature pictogram element.
+     * @return The record or <code>null</code> if the subtree of the Feature is not virtualized.
+     */
+    public static CollapsedSubtree read(PictogramElement pe) {
+        String value = Graphiti.getPeService().getPropertyValue(pe, Properties.PROP_KEY_COLLAPSED_SUBTREE);
+        if (value == null) {
+            return null;
+        }
+
+        CollapsedSubtree record = new CollapsedSubtree();
+        for (String entry : value.split(String.valueOf(ENTRY_SEPARATOR))) {
+            String[] fields = entry.split(String.valueOf(FIELD_SEPARATOR));
+            if (fields.length < 3) {
+                continue;
+            }
+            try {
+                record.put(unescape(fields[0]), Integer.parseInt(fields[1]), Integer.parseInt(fields[2]),
+                        fields.length > 3 && COLLAPSED_FLAG.equals(fields[3]));
+            } catch (NumberFormatException e) {
+                // skip the damaged entry, the Feature is arranged by the layout on expand
+                continue;
+            }
+        }
+        return record;
+    }
+
+    /**
+     * Checks whether the subtree of the given Feature pictogram element is virtualized.
+     * 
+     * @param pe
+     *            The Feature pictogram element.
+     * @return <code>true</code> if the pictogram element carries a record.
+     */
+    public static boolean exists(PictogramElement pe) {
+        return Graphiti.getPeService().getPropertyValue(pe, Properties.PROP_KEY_COLLAPSED_SUBTREE) != null;
+    }
+
+    /**
+     * Removes the record from the given Feature pictogram element.
+     * 
+     * @param pe
+     *            The Feature pictogram element.
+     */
+    public static void remove(PictogramElement pe) {
+        Graphiti.getPeService().removeProperty(pe, Properties.PROP_KEY_COLLAPSED_SUBTREE);
+    }
+
+    /**
+     * Stores the record at the given Feature pictogram element.
+     * 
+     * @param pe
+     *            The Feature pictogram element.
+     */
+    public void write(PictogramElement pe) {
+        StringBuilder value = new StringBuilder();
+        for (Map.Entry<String, Entry> e : this.entries.entrySet()) {
+            if (value.length() > 0) {
+                value.append(ENTRY_SEPARATOR);
+            }
+            escape(e.getKey(), value);
+            value.append(FIELD_SEPARATOR).append(e.getValue().getX());
+            value.append(FIELD_SEPARATOR).append(e.getValue().getY());
+            if (e.getValue().isCollapsed()) {
+                value.append(FIELD_SEPARATOR).append(COLLAPSED_FLAG);
+            }
+        }
+        Graphiti.getPeService().setPropertyValue(pe, Properties.PROP_KEY_COLLAPSED_SUBTREE, value.toString());
+    }
+
+    /**
+     * Adds the entry of a Feature. Features without id are ignored.
+     * 
+     * @param id
+     *            The id of the Feature.
+     * @param x
+     *            The x coordinate relative to the collapsed Feature.
+     * @param y
+     *            The y coordinate relative to the collapsed Feature.
+     * @param collapsed
+     *            Whether the Feature itself is collapsed.
+     */
+    public void put(String id, int x, int y, boolean collapsed) {
+        if (id != null && !id.isEmpty()) {
+            this.entries.put(id, new Entry(x, y, collapsed));
+        }
+    }
+
+    /**
+     * Adds all entries of a nested record moved by the given offset.
+     * 
+     * @param nested
+     *            The record of a collapsed Feature of the subtree.
+     * @param deltaX
+     *            The x coordinate of the nested collapsed Feature relative to this collapsed Feature.
+     * @param deltaY
+     *            The y coordinate of the nested collapsed Feature relative to this collapsed Feature.
+     */
+    public void putAll(CollapsedSubtree nested, int deltaX, int deltaY) {
+        for (Map.Entry<String, Entry> e : nested.entries.entrySet()) {
+            Entry entry = e.getValue();
+            put(e.getKey(), entry.getX() + deltaX, entry.getY() + deltaY, entry.isCollapsed());
+        }
+    }
+
+    /**
+     * Gets the entry of the given Feature.
+     * 
+     * @param feature
+     *            The Feature.
+     * @return The entry or <code>null</code> if the Feature is not recorded.
+     */
+    public Entry get(Feature feature) {
+        return feature.getId() == null ? null : this.entries.get(feature.getId());
+    }
+
+    /**
+     * Extracts the record of a nested collapsed Feature, i.e. the entries of its descendants
+     * relative to it.
+     * 
+     * @param feature
+     *            The nested collapsed Feature.
+     * @return The record of the Feature.
+     */
+    public CollapsedSubtree extract(Feature feature) {
+        CollapsedSubtree result = new CollapsedSubtree();
+        Entry origin = get(feature);
+        if (origin == null) {
+            return result;
+        }
+
+        Deque<Feature> stack = new ArrayDeque<Feature>();
+        stack.push(feature);
+        while (!stack.isEmpty()) {
+            for (Group g : stack.pop().getChildren()) {
+                for (Feature child : g.getFeatures()) {
+                    Entry entry = get(child);
+                    if (entry != null) {
+                        result.put(child.getId(), entry.getX() - origin.getX(), entry.getY() - origin.getY(),
+                                entry.isCollapsed());
+                    }
+                    stack.push(child);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Appends the given id to the property value, separators in the id are escaped.
+     * 
+     * @param id
+     *            The id.
+     * @param value
+     *            The property value.
+     */
+    static void escape(String id, StringBuilder value) {
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (c == ENTRY_SEPARATOR || c == FIELD_SEPARATOR || c == ESCAPE) {
+                value.append(ESCAPE).append(String.format("%02X", (int) c));
+            } else {
+                value.append(c);
+            }
+        }
+    }
+
+    /**
+     * Restores an id escaped by {@link #escape(String, StringBuilder)}.
+     * 
+     * @param escaped
+     *            The escaped id.
+     * @return The id.
+     */
+    static String unescape(String escaped) {
+        if (escaped.indexOf(ESCAPE) < 0) {
+            return escaped;
+        }
+        StringBuilder id = new StringBuilder();
+        for (int i = 0; i < escaped.length(); i++) {
+            char c = escaped.charAt(i);
+            if (c == ESCAPE && i + 2 < escaped.length()) {
+                id.append((char) Integer.parseInt(escaped.substring(i + 1, i + 3), 16));
+                i += 2;
+            } else {
+                id.append(c);
+            }
+        }
+        return id.toString();
+    }
+
+    /**
+     * The recorded position of a Feature.
+     */
+    public static final class Entry {
+
+        /**
+         * The x coordinate relative to the collapsed Feature.
+         */
+        private final int x;
+
+        /**
+         * The y coordinate relative to the collapsed Feature.
+         */
+        private final int y;
+
+        /**
+         * Whether the Feature itself is collapsed.
+         */
+        private final boolean collapsed;
+
+        /**
+         * Creates an instance of {@link Entry}.
+         * 
+         * @param x
+         *            The x coordinate relative to the collapsed Feature.
+         * @param y
+         *            The y coordinate relative to the collapsed Feature.
+         * @param collapsed
+         *            Whether the Feature itself is collapsed.
+         */
+        private Entry(int x, int y, boolean collapsed) {
+            this.x = x;
+            this.y = y;
+            this.collapsed = collapsed;
+        }
+
+        /**
+         * Gets the x coordinate relative to the collapsed Feature.
+         * 
+         * @return The x coordinate.
+         */
+        public int getX() {
+            return this.x;
+        }
+
+        /**
+         * Gets the y coordinate relative to the collapsed Feature.
+         * 
+         * @return The y coordinate.
+         */
+        public int getY() {
+            return this.y;
+        }
+
+        /**
+         * Checks whether the Feature itself is collapsed.
+         * 
+         * @return <code>true</code> if the Feature is collapsed.
+         */
+        public boolean isCollapsed() {
+            return this.collapsed;
+        }
+    }
+}
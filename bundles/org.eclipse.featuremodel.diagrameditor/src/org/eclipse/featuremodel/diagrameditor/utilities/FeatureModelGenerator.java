@@ -0,0 +1,243 @@
+package org.eclipse.featuremodel.diagrameditor.utilities;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Random;
+
+import org.eclipse.featuremodel.Feature;
+import org.eclipse.featuremodel.FeatureModel;
+import org.eclipse.featuremodel.FeatureModelFactory;
+import org.eclipse.featuremodel.Group;
+import org.eclipse.featuremodel.diagrameditor.utilities.BOUtil.RelationType;
+
+/**
+ * {@link FeatureModelGenerator} creates synthetic Feature Models of controlled size and shape, e.g.
+ * for benchmarks and profiling. The tree is built breadth-first: every Feature above the maximal
+ * depth gets the configured number of child Features, which are distributed among Groups whose
+ * relation types are chosen randomly by the configured weights. The generation stops as soon as the
+ * maximal number of Features is reached. All random decisions and the ids (see
+ * {@link IdGen#generate(Random)}) depend only on the seed, so a generator with the same seed and
+ * settings always creates the same Feature Model.
+ * 
+ */
+public class FeatureModelGenerator {
+
+    /**
+     * The random number generator.
+     */
+    private final Random random;
+
+    /**
+     * The maximal depth of the tree (the root Feature is on depth 0).
+     */
+    private int maxDepth = 5;
+
+    /**
+     * The number of child Features of every Feature above the maximal depth.
+     */
+    private int branchingFactor = 4;
+
+    /**
+     * The maximal number of Features in an OR or XOR Group.
+     */
+    private int maxGroupSize = 3;
+
+    /**
+     * The maximal number of Features of the Feature Model.
+     */
+    private int maxFeatures = Integer.MAX_VALUE;
+
+    /**
+     * The weights of the relation types, indexed by {@link RelationType#ordinal()}.
+     */
+    private final int[] relationWeights = { 1, 1, 1, 1 };
+
+    /**
+     * The number of created Features.
+     */
+    private int featureCount;
+
+    /**
+     * Creates an instance of {@link FeatureModelGenerator}.
+     * 
+     * @param seed
+     *            The seed of all random decisions.
+     */
+    public FeatureModelGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Sets the maximal depth of the tree.
+     * 
+     * @param maxDepth
+     *            The maximal depth, 0 creates only the root Feature.
+     */
+    public void setMaxDepth(int maxDepth) {
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Sets the number of child Features of every Feature above the maximal depth.
+     * 
+     * @param branchingFactor
+     *            The number of child Features.
+     */
+    public void setBranchingFactor(int branchingFactor) {
+        this.branchingFactor = branchingFactor;
+    }
+
+    /**
+     * Sets the maximal number of Features in an OR or XOR Group.
+     * 
+     * @param maxGroupSize
+     *            The maximal number of Features, at least 2.
+     */
+    public void setMaxGroupSize(int maxGroupSize) {
+        this.maxGroupSize = Math.max(2, maxGroupSize);
+    }
+
+    /**
+     * Sets the maximal number of Features of the Feature Model.
+     * 
+     * @param maxFeatures
+     *            The maximal number of Features.
+     */
+    public void setMaxFeatures(int maxFeatures) {
+        this.maxFeatures = maxFeatures;
+    }
+
+    /**
+     * Sets the weight of a relation type. The probability of a relation type is its weight divided by
+     * the sum of all weights.
+     * 
+     * @param relationType
+     *            The relation type.
+     * @param weight
+     *            The weight, 0 to never create Groups of this type.
+     */
+    public void setRelationWeight(RelationType relationType, int weight) {
+        this.relationWeights[relationType.ordinal()] = Math.max(0, weight);
+    }
+
+    /**
+     * Generates a new Feature Model.
+     * 
+     * @return The Feature Model.
+     */
+    public FeatureModel generate() {
+        this.featureCount = 0;
+        FeatureModel featureModel = FeatureModelFactory.eINSTANCE.createFeatureModel();
+        featureModel.setId(IdGen.generate(this.random));
+        if (this.maxFeatures <= 0) {
+            return featureModel;
+        }
+        featureModel.setRoot(createFeature());
+
+        Deque<Feature> features = new ArrayDeque<Feature>();
+        Deque<Integer> depths = new ArrayDeque<Integer>();
+        features.add(featureModel.getRoot());
+        depths.add(0);
+        while (!features.isEmpty() && this.featureCount < this.maxFeatures) {
+            Feature parent = features.poll();
+            int depth = depths.poll();
+            if (depth >= this.maxDepth) {
+                continue;
+            }
+
+            int remaining = Math.min(this.branchingFactor, this.maxFeatures - this.featureCount);
+            while (remaining > 0) {
+                RelationType relationType = chooseRelationType(remaining > 1);
+                int size = 1;
+                if (isMultiple(relationType)) {
+                    size = 2 + this.random.nextInt(Math.min(this.maxGroupSize, remaining) - 1);
+                }
+
+                Group group = createGroup(parent, relationType, size);
+                for (Feature child : group.getFeatures()) {
+                    features.add(child);
+                    depths.add(depth + 1);
+                }
+                remaining -= size;
+            }
+        }
+        return featureModel;
+    }
+
+    /**
+     * Chooses a relation type by the configured weights.
+     * 
+     * @param multiple
+     *            true if the Group may contain more than one Feature.
+     * @return The relation type.
+     */
+    private RelationType chooseRelationType(boolean multiple) {
+        RelationType[] types = RelationType.values();
+        int total = 0;
+        for (RelationType type : types) {
+            if (multiple || !isMultiple(type)) {
+                total += this.relationWeights[type.ordinal()];
+            }
+        }
+        if (total == 0) {
+            return multiple ? RelationType.OR : RelationType.Optional;
+        }
+
+        int value = this.random.nextInt(total);
+        for (RelationType type : types) {
+            if (multiple || !isMultiple(type)) {
+                value -= this.relationWeights[type.ordinal()];
+                if (value < 0) {
+                    return type;
+                }
+            }
+        }
+        return RelationType.Optional;
+    }
+
+    /**
+     * Checks whether Groups of the given relation type contain more than one Feature.
+     * 
+     * @param relationType
+     *            The relation type.
+     * @return true for OR and XOR.
+     */
+    private static boolean isMultiple(RelationType relationType) {
+        return relationType == RelationType.OR || relationType == RelationType.XOR;
+    }
+
+    /**
+     * Creates a Group with new child Features as child of the given Feature.
+     * 
+     * @param parent
+     *            The parent Feature.
+     * @param relationType
+     *            The relation type of the Group.
+     * @param size
+     *            The number of child Features.
+     * @return The Group.
+     */
+    private Group createGroup(Feature parent, RelationType relationType, int size) {
+        Group group = FeatureModelFactory.eINSTANCE.createGroup();
+        group.setId(IdGen.generate(this.random));
+        for (int i = 0; i < size; i++) {
+            group.getFeatures().add(createFeature());
+        }
+        group.setUpper(relationType == RelationType.OR ? size : 1);
+        BOUtil.setRelationType(group, relationType);
+        parent.getChildren().add(group);
+        return group;
+    }
+
+    /**
+     * Creates a Feature.
+     * 
+     * @return The Feature.
+     */
+    private Feature createFeature() {
+        Feature feature = FeatureModelFactory.eINSTANCE.createFeature();
+        feature.setId(IdGen.generate(this.random));
+        feature.setName("F" + this.featureCount++);
+        return feature;
+    }
+}
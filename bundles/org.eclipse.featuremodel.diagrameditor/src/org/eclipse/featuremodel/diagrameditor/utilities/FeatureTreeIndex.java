@@ -0,0 +1,180 @@
+package org.eclipse.featuremodel.diagrameditor.utilities;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.util.EContentAdapter;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.featuremodel.Feature;
+import org.eclipse.featuremodel.FeatureModel;
+import org.eclipse.featuremodel.Group;
+
+/**
+ * {@link FeatureTreeIndex} numbers all Features and Groups of a Feature Model tree in pre- and
+ * post-order. With these numbers the check whether an element is a descendant of a Feature is a
+ * constant-time comparison. The index is attached to the Feature Model as an adapter, it is
+ * invalidated by every structural change of the tree and rebuilt lazily on the next query.
+ * 
+ */
+public final class FeatureTreeIndex extends EContentAdapter {
+
+    /**
+     * The indexed Feature Model.
+     */
+    private final FeatureModel featureModel;
+
+    /**
+     * The pre- and post-order numbers of all Features and Groups, <code>null</code> if the tree has
+     * been changed since the last query.
+     */
+    private Map<EObject, int[]> intervals;
+
+    /**
+     * Creates an instance of {@link FeatureTreeIndex}.
+     * 
+     * @param featureModel
+     *            The Feature Model to index.
+     */
+    private FeatureTreeIndex(FeatureModel featureModel) {
+        this.featureModel = featureModel;
+    }
+
+    /**
+     * Checks whether the candidate (a Feature or a Group) is a descendant of the given Feature.
+     * 
+     * @param ancestor
+     *            The Feature.
+     * @param candidate
+     *            The Feature or Group to check.
+     * @return true if the candidate is located in the subtree of the Feature (but is not the Feature
+     *         itself).
+     */
+    public static boolean isDescendant(Feature ancestor, EObject candidate) {
+        EObject root = EcoreUtil.getRootContainer(ancestor);
+        if (root instanceof FeatureModel) {
+            return getIndex((FeatureModel) root).contains(ancestor, candidate);
+        }
+
+        // the Feature is not part of a Feature Model tree, walk up the containment hierarchy
+        for (EObject o = candidate.eContainer(); o != null; o = o.eContainer()) {
+            if (o == ancestor) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the index of the given Feature Model. The index is created and attached to the Feature
+     * Model on first access.
+     * 
+     * @param featureModel
+     *            The Feature Model.
+     * @return The index.
+     */
+    public static FeatureTreeIndex getIndex(FeatureModel featureModel) {
+        FeatureTreeIndex index = (FeatureTreeIndex) EcoreUtil.getExistingAdapter(featureModel,
+                FeatureTreeIndex.class);
+        if (index == null) {
+            index = new FeatureTreeIndex(featureModel);
+            featureModel.eAdapters().add(index);
+        }
+        return index;
+    }
+
+    /**
+     * Checks whether the candidate is located in the subtree of the given Feature.
+     * 
+     * @param ancestor
+     *            The Feature.
+     * @param candidate
+     *            The Feature or Group to check.
+     * @return true if the candidate is a descendant of the Feature.
+     */
+    public boolean contains(Feature ancestor, EObject candidate) {
+        if (this.intervals == null) {
+            this.intervals = build();
+        }
+
+        int[] a = this.intervals.get(ancestor);
+        int[] c = this.intervals.get(candidate);
+        if (a == null || c == null) {
+            return false;
+        }
+        return a[0] < c[0] && c[1] < a[1];
+    }
+
+    /**
+     * Checks whether this adapter is of the given type.
+     * 
+     * @param type
+     *            the type
+     * @return true if the type is {@link FeatureTreeIndex}
+     */
+    @Override
+    public boolean isAdapterForType(Object type) {
+        return type == FeatureTreeIndex.class;
+    }
+
+    /**
+     * Invalidates the index if the tree structure has been changed.
+     * 
+     * @param notification
+     *            the notification
+     */
+    @Override
+    public void notifyChanged(Notification notification) {
+        super.notifyChanged(notification);
+
+        Object feature = notification.getFeature();
+        if (feature instanceof EReference && ((EReference) feature).isContainment()
+                && notification.getEventType() != Notification.RESOLVE) {
+            this.intervals = null;
+        }
+    }
+
+    /**
+     * Numbers all Features and Groups of the tree in pre- and post-order.
+     * 
+     * @return The pre- and post-order number of every Feature and Group.
+     */
+    private Map<EObject, int[]> build() {
+        Map<EObject, int[]> result = new IdentityHashMap<EObject, int[]>();
+        if (this.featureModel.getRoot() == null) {
+            return result;
+        }
+
+        int counter = 0;
+        Deque<EObject> stack = new ArrayDeque<EObject>();
+        stack.push(this.featureModel.getRoot());
+        while (!stack.isEmpty()) {
+            EObject current = stack.pop();
+            int[] interval = result.get(current);
+            if (interval != null) {
+                // all children are numbered, leave the element
+                interval[1] = counter++;
+                continue;
+            }
+
+            // enter the element and visit the children from the left to the right
+            result.put(current, new int[] { counter++, -1 });
+            stack.push(current);
+            List<? extends EObject> children;
+            if (current instanceof Feature) {
+                children = ((Feature) current).getChildren();
+            } else {
+                children = ((Group) current).getFeatures();
+            }
+            for (int i = children.size() - 1; i >= 0; i--) {
+                stack.push(children.get(i));
+            }
+        }
+        return result;
+    }
+}
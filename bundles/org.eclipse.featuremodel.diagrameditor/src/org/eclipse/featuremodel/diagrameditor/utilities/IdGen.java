@@ -1,19 +1,39 @@
-package org.eclipse.featuremodel.diagrameditor.utilities;
-
-import org.eclipse.emf.ecore.util.EcoreUtil;
-
-/**
- * <code>IdGen</code> supports the generating of unique ids.
- * 
- * 
- */
-public class IdGen {
-    /**
-     * Generates a unique id.
-     * 
-     * @return The unique id.
-     */
-    public static String generate() {
-        return EcoreUtil.generateUUID();
-    }
-}
+package org.eclipse.featuremodel.diagrameditor.utilities;
+
+import java.util.Random;
+
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+/**
+ * <code>IdGen</code> supports the generating of unique ids.
+ * 
+ * 
+ */
+public class IdGen {
+    /**
+     * Generates a unique id.
+     * 
+     * @return The unique id.
+     */
+    public static String generate() {
+        return EcoreUtil.generateUUID();
+    }
+
+    /**
+     * Generates an id in the format of {@link #generate()} from the given random number generator.
+     * A generator with the same seed yields the same sequence of ids, e.g. for reproducible
+     * synthetic Feature Models.
+     * 
+     * @param random
+     *            The random number generator.
+     * @return The id.
+     */
+    public static String generate(Random random) {
+        byte[] uuid = new byte[16];
+        random.nextBytes(uuid);
+        // mark as random based UUID (version 4, IETF variant)
+        uuid[6] = (byte) ((uuid[6] & 0x0f) | 0x40);
+        uuid[8] = (byte) ((uuid[8] & 0x3f) | 0x80);
+        return EcoreUtil.generateUUID(uuid);
+    }
+}
@@ -0,0 +1,184 @@
+package org.eclipse.featuremodel.diagrameditor.utilities;
+
+import org.eclipse.graphiti.mm.algorithms.styles.Orientation;
+import org.eclipse.graphiti.mm.algorithms.styles.Style;
+import org.eclipse.graphiti.mm.pictograms.Diagram;
+import org.eclipse.graphiti.services.Graphiti;
+import org.eclipse.graphiti.services.IGaService;
+import org.eclipse.graphiti.util.IColorConstant;
+
+/**
+ * This class provides the styles shared by the graphics algorithms of the Feature Diagram. Every
+ * style is created once per diagram and referenced by the graphics algorithms, so the colors, line
+ * widths and alignments are stored once instead of at every graphics algorithm. The graphics
+ * algorithms using a style have to be created without own attribute values (e.g. by
+ * {@link IGaService#createPlainRectangle(org.eclipse.graphiti.mm.GraphicsAlgorithmContainer)}),
+ * otherwise their values hide the values of the style.
+ * 
+ */
+public class StyleUtil {
+
+    /** Id of the style of the Feature rectangle. */
+    private static final String STYLE_ID_FEATURE = "feature";
+    /** Id of the style of the Feature name. */
+    private static final String STYLE_ID_FEATURE_NAME = "featureName";
+    /** Id of the style of the expand sign. */
+    private static final String STYLE_ID_EXPAND_SIGN = "expandSign";
+    /** Id of the style of the Group line. */
+    private static final String STYLE_ID_GROUP = "group";
+    /** Id of the style of the mandatory relation circle. */
+    private static final String STYLE_ID_MANDATORY = "mandatory";
+    /** Id of the style of the optional relation circle. */
+    private static final String STYLE_ID_OPTIONAL = "optional";
+    /** Id of the style of the OR relation arc. */
+    private static final String STYLE_ID_OR = "or";
+    /** Id of the style of the XOR relation arc. */
+    private static final String STYLE_ID_XOR = "xor";
+
+    /** Line width of the Group lines and relations. */
+    private static final int RELATION_LINE_WIDTH = 2;
+
+    /**
+     * Gets the style of the Feature rectangle.
+     * 
+     * @param diagram
+     *            The diagram.
+     * @return The style.
+     */
+    public static Style getStyleForFeature(Diagram diagram) {
+        Style style = findStyle(diagram, STYLE_ID_FEATURE);
+        if (style == null) {
+            IGaService gaService = Graphiti.getGaService();
+            style = gaService.createStyle(diagram, STYLE_ID_FEATURE);
+            style.setForeground(gaService.manageColor(diagram, IColorConstant.BLACK));
+            style.setBackground(gaService.manageColor(diagram, IColorConstant.WHITE));
+            style.setFilled(true);
+            style.setLineWidth(1);
+        }
+        return style;
+    }
+
+    /**
+     * Gets the style of the Feature name.
+     * 
+     * @param diagram
+     *            The diagram.
+     * @return The style.
+     */
+    public static Style getStyleForFeatureName(Diagram diagram) {
+        Style style = findStyle(diagram, STYLE_ID_FEATURE_NAME);
+        if (style == null) {
+            IGaService gaService = Graphiti.getGaService();
+            style = gaService.createStyle(diagram, STYLE_ID_FEATURE_NAME);
+            style.setForeground(gaService.manageColor(diagram, IColorConstant.BLACK));
+            style.setFont(gaService.manageFont(diagram, IGaService.DEFAULT_FONT, IGaService.DEFAULT_FONT_SIZE));
+            style.setHorizontalAlignment(Orientation.ALIGNMENT_CENTER);
+            style.setVerticalAlignment(Orientation.ALIGNMENT_CENTER);
+        }
+        return style;
+    }
+
+    /**
+     * Gets the style of the expand sign (the border rectangle and the plus sign).
+     * 
+     * @param diagram
+     *            The diagram.
+     * @return The style.
+     */
+    public static Style getStyleForExpandSign(Diagram diagram) {
+        Style style = findStyle(diagram, STYLE_ID_EXPAND_SIGN);
+        if (style == null) {
+            IGaService gaService = Graphiti.getGaService();
+            style = gaService.createStyle(diagram, STYLE_ID_EXPAND_SIGN);
+            style.setForeground(gaService.manageColor(diagram, IColorConstant.BLACK));
+            style.setBackground(gaService.manageColor(diagram, IColorConstant.WHITE));
+            style.setFilled(true);
+            style.setLineWidth(1);
+        }
+        return style;
+    }
+
+    /**
+     * Gets the style of the Group line.
+     * 
+     * @param diagram
+     *            The diagram.
+     * @return The style.
+     */
+    public static Style getStyleForGroup(Diagram diagram) {
+        Style style = findStyle(diagram, STYLE_ID_GROUP);
+        if (style == null) {
+            IGaService gaService = Graphiti.getGaService();
+            style = gaService.createStyle(diagram, STYLE_ID_GROUP);
+            style.setForeground(gaService.manageColor(diagram, IColorConstant.BLACK));
+            style.setLineWidth(RELATION_LINE_WIDTH);
+        }
+        return style;
+    }
+
+    /**
+     * Gets the style of the circle of a mandatory or an optional relation.
+     * 
+     * @param diagram
+     *            The diagram.
+     * @param mandatory
+     *            true for the filled circle of a mandatory relation.
+     * @return The style.
+     */
+    public static Style getStyleForSingleRelation(Diagram diagram, boolean mandatory) {
+        String id = mandatory ? STYLE_ID_MANDATORY : STYLE_ID_OPTIONAL;
+        Style style = findStyle(diagram, id);
+        if (style == null) {
+            IGaService gaService = Graphiti.getGaService();
+            style = gaService.createStyle(diagram, id);
+            style.setForeground(gaService.manageColor(diagram, IColorConstant.BLACK));
+            style.setBackground(gaService.manageColor(diagram, mandatory ? IColorConstant.BLACK
+                    : IColorConstant.WHITE));
+            style.setFilled(true);
+            style.setLineWidth(RELATION_LINE_WIDTH);
+        }
+        return style;
+    }
+
+    /**
+     * Gets the style of the arc of an OR relation (a filled polygon) or a XOR relation (a polyline).
+     * 
+     * @param diagram
+     *            The diagram.
+     * @param or
+     *            true for the filled arc of an OR relation.
+     * @return The style.
+     */
+    public static Style getStyleForSetRelation(Diagram diagram, boolean or) {
+        String id = or ? STYLE_ID_OR : STYLE_ID_XOR;
+        Style style = findStyle(diagram, id);
+        if (style == null) {
+            IGaService gaService = Graphiti.getGaService();
+            style = gaService.createStyle(diagram, id);
+            style.setForeground(gaService.manageColor(diagram, IColorConstant.BLACK));
+            style.setBackground(gaService.manageColor(diagram, IColorConstant.BLACK));
+            style.setFilled(or);
+            style.setLineVisible(!or);
+            style.setLineWidth(RELATION_LINE_WIDTH);
+        }
+        return style;
+    }
+
+    /**
+     * Finds the style with the given id among the styles of the diagram.
+     * 
+     * @param diagram
+     *            The diagram.
+     * @param id
+     *            The id of the style.
+     * @return The style or <code>null</code> if the diagram has no style with the id.
+     */
+    private static Style findStyle(Diagram diagram, String id) {
+        for (Style style : diagram.getStyles()) {
+            if (id.equals(style.getId())) {
+                return style;
+            }
+        }
+        return null;
+    }
+}
@@ -1,7 +1,7 @@
-/**
- * The package of utilities.
- * The classes in this package provides common utilities used throughout all classes.
- * 
- */
-package org.eclipse.featuremodel.diagrameditor.utilities;
-
+/**
+ * The package of utilities.
+ * The classes in this package provides common utilities used throughout all classes.
+ * 
+ */
+package org.eclipse.featuremodel.diagrameditor.utilities;
+
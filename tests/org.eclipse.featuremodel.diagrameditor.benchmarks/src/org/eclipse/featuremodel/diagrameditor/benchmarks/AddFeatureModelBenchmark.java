@@ -0,0 +1,59 @@
+package org.eclipse.featuremodel.diagrameditor.benchmarks;
+
+import org.eclipse.featuremodel.diagrameditor.features.AddFeatureModelFeature;
+
+/**
+ * Measures the creation of the Feature Diagram of the whole Feature Model by
+ * {@link AddFeatureModelFeature}, including the initial layout.
+ * 
+ */
+public class AddFeatureModelBenchmark extends Benchmark {
+
+    /**
+     * The fixture.
+     */
+    private BenchmarkFixture fixture;
+
+    /**
+     * Creates an instance of {@link AddFeatureModelBenchmark}.
+     */
+    public AddFeatureModelBenchmark() {
+        super("add-feature-model");
+    }
+
+    /**
+     * Creates the synthetic Feature Model.
+     * 
+     * @param size
+     *            The number of Features of the Feature Model.
+     */
+    @Override
+    public void setUp(int size) {
+        this.fixture = new BenchmarkFixture(size);
+    }
+
+    /**
+     * Replaces the Feature Diagram by an empty one.
+     */
+    @Override
+    public void prepare() {
+        this.fixture.resetDiagram();
+    }
+
+    /**
+     * Creates the Feature Diagram of the Feature Model on the empty diagram.
+     */
+    @Override
+    public void run() {
+        this.fixture.addFeatureModel();
+    }
+
+    /**
+     * Disposes the fixture.
+     */
+    @Override
+    public void tearDown() {
+        this.fixture.dispose();
+        this.fixture = null;
+    }
+}
@@ -0,0 +1,70 @@
+package org.eclipse.featuremodel.diagrameditor.benchmarks;
+
+/**
+ * A benchmark measures a single operation of the Feature Diagram Editor on a synthetic Feature
+ * Model of a given size. {@link BenchmarkRunner} calls {@link #setUp(int)} once, {@link #prepare()}
+ * and {@link #run()} repeatedly and {@link #tearDown()} at the end. Only {@link #run()} is measured.
+ * 
+ */
+public abstract class Benchmark {
+
+    /**
+     * The name of the benchmark.
+     */
+    private final String name;
+
+    /**
+     * Creates an instance of {@link Benchmark}.
+     * 
+     * @param name
+     *            The name of the benchmark.
+     */
+    protected Benchmark(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Gets the name of the benchmark.
+     * 
+     * @return The name.
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Prepares the benchmark. The time spent here is not measured.
+     * 
+     * @param size
+     *            The number of Features of the Feature Model.
+     */
+    public abstract void setUp(int size);
+
+    /**
+     * Prepares the next operation, e.g. resets the state changed by the previous operation. The
+     * time spent here is not measured.
+     */
+    public void prepare() {
+    }
+
+    /**
+     * Performs the measured operation once.
+     */
+    public abstract void run();
+
+    /**
+     * Gets a value computed from the results of all operations. The runner reports it, so the
+     * results are used and the operations cannot be optimized away.
+     * 
+     * @return The value, 0 by default.
+     */
+    public long getChecksum() {
+        return 0;
+    }
+
+    /**
+     * Releases the resources of the benchmark.
+     */
+    public void tearDown() {
+    }
+}
@@ -0,0 +1,143 @@
+package org.eclipse.featuremodel.diagrameditor.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.equinox.app.IApplication;
+import org.eclipse.equinox.app.IApplicationContext;
+import org.eclipse.featuremodel.diagrameditor.features.LayoutDiagramFeature;
+
+/**
+ * Headless application running the Feature Diagram Editor benchmarks. The application is started
+ * with <code>-application org.eclipse.featuremodel.diagrameditor.benchmarks.benchmark</code> and
+ * accepts the following arguments:
+ * <ul>
+ * <li><code>-sizes 100,1000,10000</code> the numbers of Features of the synthetic Feature Models</li>
+ * <li><code>-warmup 5</code> the number of warmup iterations</li>
+ * <li><code>-iterations 5</code> the number of measurement iterations</li>
+ * <li><code>-time 1000</code> the minimal duration of an iteration in milliseconds</li>
+ * <li><code>-benchmark layout</code> runs only the benchmarks whose name contains the given text</li>
+ * </ul>
+ * 
+ */
+public class BenchmarkApplication implements IApplication {
+
+    /**
+     * The default numbers of Features of the synthetic Feature Models.
+     */
+    private static final int[] DEFAULT_SIZES = { 100, 1000, 10000, 50000 };
+
+    /**
+     * The numbers of Features of the synthetic Feature Models.
+     */
+    private int[] sizes = DEFAULT_SIZES;
+
+    /**
+     * The number of warmup iterations.
+     */
+    private int warmupIterations = 5;
+
+    /**
+     * The number of measurement iterations.
+     */
+    private int measurementIterations = 5;
+
+    /**
+     * The minimal duration of an iteration in milliseconds.
+     */
+    private long iterationMillis = 1000;
+
+    /**
+     * The filter for the benchmark names, <code>null</code> to run all benchmarks.
+     */
+    private String filter;
+
+    /**
+     * Runs the benchmarks and prints the results to the standard output.
+     * 
+     * @param context
+     *            The application context.
+     * @return {@link IApplication#EXIT_OK}
+     * @throws Exception
+     *             if a benchmark fails.
+     */
+    @Override
+    public Object start(IApplicationContext context) throws Exception {
+        parseArguments((String[]) context.getArguments().get(IApplicationContext.APPLICATION_ARGS));
+
+        BenchmarkRunner runner = new BenchmarkRunner(this.warmupIterations, this.measurementIterations,
+                this.iterationMillis);
+        System.out.printf("%-30s %10s %15s %15s %15s%n", "Benchmark", "Features", "ops/s", "bytes/op",
+                "checksum");
+        for (Benchmark benchmark : createBenchmarks()) {
+            if (this.filter != null && !benchmark.getName().contains(this.filter)) {
+                continue;
+            }
+            for (int size : this.sizes) {
+                BenchmarkRunner.Result result = runner.run(benchmark, size);
+                System.out.printf("%-30s %10d %15.3f %15s %15d%n", result.getName(), result.getSize(),
+                        result.getThroughput(), result.getBytesPerOperation() < 0 ? "n/a"
+                                : String.valueOf(result.getBytesPerOperation()), result.getChecksum());
+            }
+        }
+        return IApplication.EXIT_OK;
+    }
+
+    /**
+     * Nothing to stop, the benchmarks run synchronously.
+     */
+    @Override
+    public void stop() {
+        // nothing to do
+    }
+
+    /**
+     * Creates all benchmarks.
+     * 
+     * @return The benchmarks.
+     */
+    private List<Benchmark> createBenchmarks() {
+        List<Benchmark> result = new ArrayList<Benchmark>();
+        result.add(new AddFeatureModelBenchmark());
+        result.add(new LayoutBenchmark(LayoutDiagramFeature.Algorithm.TREE));
+        result.add(new LayoutBenchmark(LayoutDiagramFeature.Algorithm.DIRECTED_GRAPH));
+        result.add(new LookupBenchmark());
+        result.add(new UpdateRelationshipBenchmark());
+        result.add(new LoadBenchmark(false));
+        result.add(new LoadBenchmark(true));
+        return result;
+    }
+
+    /**
+     * Parses the application arguments.
+     * 
+     * @param args
+     *            The application arguments, may be <code>null</code>.
+     */
+    private void parseArguments(String[] args) {
+        if (args == null) {
+            return;
+        }
+        for (int i = 0; i + 1 < args.length; i++) {
+            String value = args[i + 1];
+            if ("-sizes".equals(args[i])) {
+                String[] parts = value.split(",");
+                this.sizes = new int[parts.length];
+                for (int j = 0; j < parts.length; j++) {
+                    this.sizes[j] = Integer.parseInt(parts[j].trim());
+                }
+            } else if ("-warmup".equals(args[i])) {
+                this.warmupIterations = Integer.parseInt(value);
+            } else if ("-iterations".equals(args[i])) {
+                this.measurementIterations = Integer.parseInt(value);
+            } else if ("-time".equals(args[i])) {
+                this.iterationMillis = Long.parseLong(value);
+            } else if ("-benchmark".equals(args[i])) {
+                this.filter = value;
+            } else {
+                continue;
+            }
+            i++;
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package org.eclipse.featuremodel.diagrameditor.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.emf.common.util.TreeIterator;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.xmi.impl.XMIResourceImpl;
+import org.eclipse.emf.transaction.RecordingCommand;
+import org.eclipse.emf.transaction.TransactionalEditingDomain;
+import org.eclipse.featuremodel.Feature;
+import org.eclipse.featuremodel.FeatureModel;
+import org.eclipse.featuremodel.Group;
+import org.eclipse.featuremodel.diagrameditor.FMEDiagramEditor;
+import org.eclipse.featuremodel.diagrameditor.utilities.FeatureModelGenerator;
+import org.eclipse.graphiti.features.IFeatureProvider;
+import org.eclipse.graphiti.features.context.impl.AddContext;
+import org.eclipse.graphiti.mm.pictograms.Diagram;
+import org.eclipse.graphiti.services.Graphiti;
+import org.eclipse.graphiti.ui.services.GraphitiUi;
+
+/**
+ * A synthetic Feature Model (see {@link FeatureModelGenerator}) together with a Feature Diagram in an
+ * editing domain. The Feature Model is filled breadth-first with four child Features per Feature
+ * until the requested number of Features is reached, the seed is fixed, so every run measures the
+ * same Feature Model.
+ * 
+ */
+public class BenchmarkFixture {
+
+    /**
+     * The seed of the synthetic Feature Model.
+     */
+    private static final long SEED = 42;
+
+    /**
+     * The number of child Features of every Feature.
+     */
+    private static final int BRANCHING_FACTOR = 4;
+
+    /**
+     * The editing domain of the resources.
+     */
+    private final TransactionalEditingDomain editingDomain;
+
+    /**
+     * The resource of the Feature Diagram.
+     */
+    private final Resource diagramResource;
+
+    /**
+     * The Feature Model.
+     */
+    private final FeatureModel featureModel;
+
+    /**
+     * All Features of the Feature Model.
+     */
+    private final List<Feature> features = new ArrayList<Feature>();
+
+    /**
+     * All Groups of the Feature Model.
+     */
+    private final List<Group> groups = new ArrayList<Group>();
+
+    /**
+     * The Feature Diagram.
+     */
+    private Diagram diagram;
+
+    /**
+     * The feature provider of the Feature Diagram.
+     */
+    private IFeatureProvider featureProvider;
+
+    /**
+     * Creates an instance of {@link BenchmarkFixture} with an empty Feature Diagram.
+     * 
+     * @param size
+     *            The number of Features of the Feature Model.
+     */
+    public BenchmarkFixture(int size) {
+        this.editingDomain = GraphitiUi.getEmfService().createResourceSetAndEditingDomain();
+        this.featureModel = createFeatureModel(size);
+
+        final Resource modelResource = new XMIResourceImpl(URI.createURI("benchmark.featuremodel"));
+        this.diagramResource = new XMIResourceImpl(URI.createURI("benchmark.featurediagram"));
+        execute(new Runnable() {
+            @Override
+            public void run() {
+                BenchmarkFixture.this.editingDomain.getResourceSet().getResources().add(modelResource);
+                BenchmarkFixture.this.editingDomain.getResourceSet().getResources()
+                        .add(BenchmarkFixture.this.diagramResource);
+                modelResource.getContents().add(BenchmarkFixture.this.featureModel);
+            }
+        });
+        resetDiagram();
+    }
+
+    /**
+     * Replaces the Feature Diagram by a new empty one.
+     */
+    public void resetDiagram() {
+        execute(new Runnable() {
+            @Override
+            public void run() {
+                BenchmarkFixture.this.diagram = Graphiti.getPeCreateService().createDiagram(
+                        FMEDiagramEditor.DIAGRAM_TYPE_NAME, "benchmark", 10, false);
+                BenchmarkFixture.this.diagramResource.getContents().clear();
+                BenchmarkFixture.this.diagramResource.getContents().add(BenchmarkFixture.this.diagram);
+            }
+        });
+        this.featureProvider = GraphitiUi.getExtensionManager().createFeatureProvider(this.diagram);
+    }
+
+    /**
+     * Adds the graphical representation of the whole Feature Model to the Feature Diagram.
+     */
+    public void addFeatureModel() {
+        execute(new Runnable() {
+            @Override
+            public void run() {
+                AddContext addContext = new AddContext();
+                addContext.setNewObject(BenchmarkFixture.this.featureModel);
+                addContext.setTargetContainer(BenchmarkFixture.this.diagram);
+                BenchmarkFixture.this.featureProvider.addIfPossible(addContext);
+            }
+        });
+    }
+
+    /**
+     * Executes the given operation in a write transaction. The undo history is flushed afterwards,
+     * so the memory does not grow with the number of operations.
+     * 
+     * @param operation
+     *            The operation to execute.
+     */
+    public void execute(final Runnable operation) {
+        this.editingDomain.getCommandStack().execute(new RecordingCommand(this.editingDomain) {
+            @Override
+            protected void doExecute() {
+                operation.run();
+            }
+        });
+        this.editingDomain.getCommandStack().flush();
+    }
+
+    /**
+     * Disposes the editing domain.
+     */
+    public void dispose() {
+        this.editingDomain.dispose();
+    }
+
+    /**
+     * Gets the Feature Model.
+     * 
+     * @return The Feature Model.
+     */
+    public FeatureModel getFeatureModel() {
+        return this.featureModel;
+    }
+
+    /**
+     * Gets all Features of the Feature Model in breadth-first order.
+     * 
+     * @return The Features.
+     */
+    public List<Feature> getFeatures() {
+        return Collections.unmodifiableList(this.features);
+    }
+
+    /**
+     * Gets all Groups of the Feature Model in breadth-first order.
+     * 
+     * @return The Groups.
+     */
+    public List<Group> getGroups() {
+        return Collections.unmodifiableList(this.groups);
+    }
+
+    /**
+     * Gets the Feature Diagram.
+     * 
+     * @return The Feature Diagram.
+     */
+    public Diagram getDiagram() {
+        return this.diagram;
+    }
+
+    /**
+     * Gets the feature provider of the Feature Diagram.
+     * 
+     * @return The feature provider.
+     */
+    public IFeatureProvider getFeatureProvider() {
+        return this.featureProvider;
+    }
+
+    /**
+     * Creates the synthetic Feature Model and collects its Features and Groups.
+     * 
+     * @param size
+     *            The number of Features.
+     * @return The Feature Model.
+     */
+    private FeatureModel createFeatureModel(int size) {
+        FeatureModelGenerator generator = new FeatureModelGenerator(SEED);
+        generator.setMaxDepth(Integer.MAX_VALUE);
+        generator.setBranchingFactor(BRANCHING_FACTOR);
+        generator.setMaxFeatures(size);
+        FeatureModel fm = generator.generate();
+
+        for (TreeIterator<EObject> it = fm.eAllContents(); it.hasNext();) {
+            EObject o = it.next();
+            if (o instanceof Feature) {
+                this.features.add((Feature) o);
+            } else if (o instanceof Group) {
+                this.groups.add((Group) o);
+            }
+        }
+        return fm;
+    }
+}
@@ -0,0 +1,259 @@
+package org.eclipse.featuremodel.diagrameditor.benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+
+/**
+ * Runs a {@link Benchmark} in warmup and measurement iterations of a fixed duration and reports the
+ * throughput and the number of bytes allocated per operation. Only the operations are measured,
+ * not their preparation (see {@link Benchmark#prepare()}). The allocation is measured with the
+ * thread allocation counter of the HotSpot JVM (<code>com.sun.management.ThreadMXBean</code>), it is
+ * not reported on JVMs without this counter.
+ * 
+ */
+public class BenchmarkRunner {
+
+    /**
+     * The number of nanoseconds of a millisecond.
+     */
+    private static final long NANOS_PER_MILLI = 1000000L;
+
+    /**
+     * The number of nanoseconds of a second.
+     */
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    /**
+     * The number of warmup iterations.
+     */
+    private final int warmupIterations;
+
+    /**
+     * The number of measurement iterations.
+     */
+    private final int measurementIterations;
+
+    /**
+     * The minimal duration of an iteration in milliseconds.
+     */
+    private final long iterationMillis;
+
+    /**
+     * The thread management bean.
+     */
+    private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+
+    /**
+     * The method reading the allocated bytes of a thread, <code>null</code> if not supported.
+     */
+    private final Method allocatedBytesMethod;
+
+    /**
+     * Creates an instance of {@link BenchmarkRunner}.
+     * 
+     * @param warmupIterations
+     *            The number of warmup iterations.
+     * @param measurementIterations
+     *            The number of measurement iterations.
+     * @param iterationMillis
+     *            The minimal duration of an iteration in milliseconds.
+     */
+    public BenchmarkRunner(int warmupIterations, int measurementIterations, long iterationMillis) {
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+        this.iterationMillis = iterationMillis;
+        this.allocatedBytesMethod = findAllocatedBytesMethod();
+    }
+
+    /**
+     * Runs the given benchmark.
+     * 
+     * @param benchmark
+     *            The benchmark.
+     * @param size
+     *            The number of Features of the Feature Model.
+     * @return The result.
+     */
+    public Result run(Benchmark benchmark, int size) {
+        benchmark.setUp(size);
+        try {
+            for (int i = 0; i < this.warmupIterations; i++) {
+                iterate(benchmark);
+            }
+
+            long operations = 0;
+            long nanos = 0;
+            long bytes = 0;
+            for (int i = 0; i < this.measurementIterations; i++) {
+                long[] iteration = iterate(benchmark);
+                operations += iteration[0];
+                nanos += iteration[1];
+                bytes = iteration[2] < 0 || bytes < 0 ? -1 : bytes + iteration[2];
+            }
+            return new Result(benchmark.getName(), size, operations * NANOS_PER_SECOND / nanos,
+                    bytes < 0 ? -1 : bytes / operations, benchmark.getChecksum());
+        } finally {
+            benchmark.tearDown();
+        }
+    }
+
+    /**
+     * Runs the benchmark operation repeatedly for the duration of one iteration.
+     * 
+     * @param benchmark
+     *            The benchmark.
+     * @return The number of operations, the nanoseconds spent in the operations and the bytes
+     *         allocated by the operations (-1 if not supported).
+     */
+    private long[] iterate(Benchmark benchmark) {
+        long operations = 0;
+        long nanos = 0;
+        long bytes = 0;
+        long deadline = System.nanoTime() + this.iterationMillis * NANOS_PER_MILLI;
+        long now;
+        do {
+            benchmark.prepare();
+            long startBytes = getAllocatedBytes();
+            long start = System.nanoTime();
+            benchmark.run();
+            now = System.nanoTime();
+            long endBytes = getAllocatedBytes();
+            nanos += now - start;
+            bytes = startBytes < 0 || bytes < 0 ? -1 : bytes + endBytes - startBytes;
+            operations++;
+        } while (now < deadline);
+        return new long[] { operations, nanos, bytes };
+    }
+
+    /**
+     * Gets the number of bytes allocated by the current thread.
+     * 
+     * @return The allocated bytes or -1 if not supported.
+     */
+    private long getAllocatedBytes() {
+        if (this.allocatedBytesMethod == null) {
+            return -1;
+        }
+        try {
+            return (Long) this.allocatedBytesMethod.invoke(this.threadBean, Thread.currentThread().getId());
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Looks up the method reading the allocated bytes of a thread.
+     * 
+     * @return The method or <code>null</code> if the JVM does not support it.
+     */
+    private Method findAllocatedBytesMethod() {
+        try {
+            Class<?> type = Class.forName("com.sun.management.ThreadMXBean");
+            if (!type.isInstance(this.threadBean)) {
+                return null;
+            }
+            return type.getMethod("getThreadAllocatedBytes", long.class);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * The result of a benchmark run.
+     */
+    public static final class Result {
+
+        /**
+         * The name of the benchmark.
+         */
+        private final String name;
+
+        /**
+         * The number of Features of the Feature Model.
+         */
+        private final int size;
+
+        /**
+         * The number of operations per second.
+         */
+        private final double throughput;
+
+        /**
+         * The number of bytes allocated per operation, -1 if not measured.
+         */
+        private final long bytesPerOperation;
+
+        /**
+         * The checksum of the benchmark.
+         */
+        private final long checksum;
+
+        /**
+         * Creates an instance of {@link Result}.
+         * 
+         * @param name
+         *            The name of the benchmark.
+         * @param size
+         *            The number of Features of the Feature Model.
+         * @param throughput
+         *            The number of operations per second.
+         * @param bytesPerOperation
+         *            The number of bytes allocated per operation, -1 if not measured.
+         * @param checksum
+         *            The checksum of the benchmark.
+         */
+        private Result(String name, int size, double throughput, long bytesPerOperation, long checksum) {
+            this.name = name;
+            this.size = size;
+            this.throughput = throughput;
+            this.bytesPerOperation = bytesPerOperation;
+            this.checksum = checksum;
+        }
+
+        /**
+         * Gets the name of the benchmark.
+         * 
+         * @return The name.
+         */
+        public String getName() {
+            return this.name;
+        }
+
+        /**
+         * Gets the number of Features of the Feature Model.
+         * 
+         * @return The size.
+         */
+        public int getSize() {
+            return this.size;
+        }
+
+        /**
+         * Gets the number of operations per second.
+         * 
+         * @return The throughput.
+         */
+        public double getThroughput() {
+            return this.throughput;
+        }
+
+        /**
+         * Gets the number of bytes allocated per operation.
+         * 
+         * @return The allocated bytes or -1 if not measured.
+         */
+        public long getBytesPerOperation() {
+            return this.bytesPerOperation;
+        }
+    
+        /**
+         * Gets the checksum of the benchmark (see {@link Benchmark#getChecksum()}).
+         * 
+         * @return The checksum.
+         */
+        public long getChecksum() {
+            return this.checksum;
+        }
+    }
+}
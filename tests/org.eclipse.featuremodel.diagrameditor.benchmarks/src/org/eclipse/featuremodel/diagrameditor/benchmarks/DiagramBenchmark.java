@@ -0,0 +1,54 @@
+package org.eclipse.featuremodel.diagrameditor.benchmarks;
+
+/**
+ * Base class of the benchmarks working on a Feature Diagram showing the whole synthetic Feature
+ * Model.
+ * 
+ */
+public abstract class DiagramBenchmark extends Benchmark {
+
+    /**
+     * The fixture, available between {@link #setUp(int)} and {@link #tearDown()}.
+     */
+    private BenchmarkFixture fixture;
+
+    /**
+     * Creates an instance of {@link DiagramBenchmark}.
+     * 
+     * @param name
+     *            The name of the benchmark.
+     */
+    protected DiagramBenchmark(String name) {
+        super(name);
+    }
+
+    /**
+     * Creates the synthetic Feature Model and its Feature Diagram.
+     * 
+     * @param size
+     *            The number of Features of the Feature Model.
+     */
+    @Override
+    public void setUp(int size) {
+        this.fixture = new BenchmarkFixture(size);
+        this.fixture.addFeatureModel();
+    }
+
+    /**
+     * Disposes the fixture.
+     */
+    @Override
+    public void tearDown() {
+        this.fixture.dispose();
+        this.fixture = null;
+    }
+
+    /**
+     * Gets the fixture.
+     * 
+     * @return The fixture.
+     */
+    protected BenchmarkFixture getFixture() {
+        return this.fixture;
+    }
+}
@@ -0,0 +1,42 @@
+package org.eclipse.featuremodel.diagrameditor.benchmarks;
+
+import org.eclipse.featuremodel.diagrameditor.features.LayoutDiagramFeature;
+import org.eclipse.graphiti.features.context.impl.LayoutContext;
+
+/**
+ * Measures the layout of the whole Feature Diagram by {@link LayoutDiagramFeature}.
+ * 
+ */
+public class LayoutBenchmark extends DiagramBenchmark {
+
+    /**
+     * The layout algorithm.
+     */
+    private final LayoutDiagramFeature.Algorithm algorithm;
+
+    /**
+     * Creates an instance of {@link LayoutBenchmark}.
+     * 
+     * @param algorithm
+     *            The layout algorithm.
+     */
+    public LayoutBenchmark(LayoutDiagramFeature.Algorithm algorithm) {
+        super("layout-" + algorithm.name().toLowerCase());
+        this.algorithm = algorithm;
+    }
+
+    /**
+     * Layouts the Feature Diagram.
+     */
+    @Override
+    public void run() {
+        final BenchmarkFixture fixture = getFixture();
+        fixture.execute(new Runnable() {
+            @Override
+            public void run() {
+                new LayoutDiagramFeature(fixture.getFeatureProvider(), LayoutBenchmark.this.algorithm, true)
+                        .layout(new LayoutContext(fixture.getDiagram()));
+            }
+        });
+    }
+}
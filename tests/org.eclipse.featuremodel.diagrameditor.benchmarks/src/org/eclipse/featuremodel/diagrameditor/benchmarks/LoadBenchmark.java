@@ -0,0 +1,133 @@
+package org.eclipse.featuremodel.diagrameditor.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.emf.ecore.xmi.impl.XMIResourceFactoryImpl;
+import org.eclipse.featuremodel.diagrameditor.FMEDiagramEditor;
+import org.eclipse.featuremodel.diagrameditor.FMEResourceFactoryImpl;
+import org.eclipse.featuremodel.diagrameditor.FMEResourceImpl;
+
+/**
+ * Measures the loading of the Feature Diagram and Feature Model files, including the resolution of
+ * the links from the diagram to the Feature Model. The files are loaded either with the tuned load
+ * options of {@link FMEResourceImpl#getFastLoadOptions()} or with the default XMI load options.
+ * 
+ */
+public class LoadBenchmark extends DiagramBenchmark {
+
+    /**
+     * Whether the files are loaded by {@link FMEResourceImpl}.
+     */
+    private final boolean fastLoad;
+
+    /**
+     * The directory of the saved files.
+     */
+    private File directory;
+
+    /**
+     * The URI of the saved Feature Diagram file.
+     */
+    private URI diagramURI;
+
+    /**
+     * The number of loaded resources, keeps the loads from being optimized away.
+     */
+    private long loaded;
+
+    /**
+     * Creates an instance of {@link LoadBenchmark}.
+     * 
+     * @param fastLoad
+     *            Whether the files are loaded by {@link FMEResourceImpl}.
+     */
+    public LoadBenchmark(boolean fastLoad) {
+        super(fastLoad ? "load-fast" : "load-default");
+        this.fastLoad = fastLoad;
+    }
+
+    /**
+     * Creates the Feature Diagram and saves it together with the Feature Model as XMI files.
+     * 
+     * @param size
+     *            The number of Features of the Feature Model.
+     */
+    @Override
+    public void setUp(int size) {
+        super.setUp(size);
+        final BenchmarkFixture fixture = getFixture();
+        try {
+            this.directory = File.createTempFile("benchmark", "");
+            if (!this.directory.delete() || !this.directory.mkdir()) {
+                throw new IOException("Unable to create " + this.directory);
+            }
+            final Resource modelResource = fixture.getFeatureModel().eResource();
+            final Resource diagramResource = fixture.getDiagram().eResource();
+            this.diagramURI = URI.createFileURI(new File(this.directory, "benchmark."
+                    + FMEDiagramEditor.DIAGRAM_FILE_EXTENSION).getAbsolutePath());
+            fixture.execute(new Runnable() {
+                @Override
+                public void run() {
+                    modelResource.setURI(LoadBenchmark.this.diagramURI.trimFileExtension().appendFileExtension(
+                            FMEDiagramEditor.MODEL_FILE_EXTENSION));
+                    diagramResource.setURI(LoadBenchmark.this.diagramURI);
+                }
+            });
+            modelResource.save(null);
+            diagramResource.save(null);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Loads the Feature Diagram and resolves its links to the Feature Model.
+     */
+    @Override
+    public void run() {
+        ResourceSet resourceSet = new ResourceSetImpl();
+        Resource.Factory factory = this.fastLoad ? new FMEResourceFactoryImpl() : new XMIResourceFactoryImpl();
+        resourceSet.getResourceFactoryRegistry().getExtensionToFactoryMap()
+                .put(FMEDiagramEditor.DIAGRAM_FILE_EXTENSION, factory);
+        resourceSet.getResourceFactoryRegistry().getExtensionToFactoryMap()
+                .put(FMEDiagramEditor.MODEL_FILE_EXTENSION, factory);
+
+        resourceSet.getResource(this.diagramURI, true);
+        EcoreUtil.resolveAll(resourceSet);
+        for (Resource resource : resourceSet.getResources()) {
+            this.loaded++;
+            resource.unload();
+        }
+    }
+
+    /**
+     * Gets the number of loaded resources.
+     * 
+     * @return The number of loaded resources of all operations.
+     */
+    @Override
+    public long getChecksum() {
+        return this.loaded;
+    }
+
+    /**
+     * Deletes the saved files and disposes the fixture.
+     */
+    @Override
+    public void tearDown() {
+        File[] files = this.directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        this.directory.delete();
+        super.tearDown();
+    }
+}
@@ -0,0 +1,50 @@
+package org.eclipse.featuremodel.diagrameditor.benchmarks;
+
+import org.eclipse.featuremodel.Feature;
+import org.eclipse.featuremodel.diagrameditor.utilities.BOUtil;
+import org.eclipse.graphiti.mm.pictograms.ContainerShape;
+
+/**
+ * Measures the lookup of the container shapes of all Features with
+ * {@link BOUtil#getPictogramElementForBusinessObject(Object, Class, org.eclipse.graphiti.features.IFeatureProvider)}
+ * . One operation looks up every Feature once.
+ * 
+ */
+public class LookupBenchmark extends DiagramBenchmark {
+
+    /**
+     * The number of found shapes, keeps the lookups from being optimized away.
+     */
+    private long found;
+
+    /**
+     * Creates an instance of {@link LookupBenchmark}.
+     */
+    public LookupBenchmark() {
+        super("lookup");
+    }
+
+    /**
+     * Looks up the container shapes of all Features.
+     */
+    @Override
+    public void run() {
+        BenchmarkFixture fixture = getFixture();
+        for (Feature f : fixture.getFeatures()) {
+            if (BOUtil.getPictogramElementForBusinessObject(f, ContainerShape.class,
+                    fixture.getFeatureProvider()) != null) {
+                this.found++;
+            }
+        }
+    }
+
+    /**
+     * Gets the number of found shapes.
+     * 
+     * @return The number of found shapes of all operations.
+     */
+    @Override
+    public long getChecksum() {
+        return this.found;
+    }
+}
@@ -0,0 +1,40 @@
+package org.eclipse.featuremodel.diagrameditor.benchmarks;
+
+import org.eclipse.featuremodel.Group;
+import org.eclipse.featuremodel.diagrameditor.features.UpdateRelationshipFeature;
+import org.eclipse.featuremodel.diagrameditor.utilities.BOUtil;
+import org.eclipse.graphiti.features.context.impl.UpdateContext;
+import org.eclipse.graphiti.mm.pictograms.Connection;
+
+/**
+ * Measures the update of the relation notations of all Groups by {@link UpdateRelationshipFeature}.
+ * One operation updates every Group once.
+ * 
+ */
+public class UpdateRelationshipBenchmark extends DiagramBenchmark {
+
+    /**
+     * Creates an instance of {@link UpdateRelationshipBenchmark}.
+     */
+    public UpdateRelationshipBenchmark() {
+        super("update-relationship");
+    }
+
+    /**
+     * Updates the relation notations of all Groups.
+     */
+    @Override
+    public void run() {
+        final BenchmarkFixture fixture = getFixture();
+        fixture.execute(new Runnable() {
+            @Override
+            public void run() {
+                for (Group g : fixture.getGroups()) {
+                    Connection c = BOUtil.getPictogramElementForBusinessObject(g, Connection.class,
+                            fixture.getFeatureProvider());
+                    fixture.getFeatureProvider().updateIfPossible(new UpdateContext(c));
+                }
+            }
+        });
+    }
+}
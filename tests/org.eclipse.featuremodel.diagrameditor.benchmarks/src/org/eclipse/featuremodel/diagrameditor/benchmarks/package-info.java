@@ -0,0 +1,7 @@
+/**
+ * The package of the benchmarks.
+ * The classes in this package measure the throughput and the allocation rate of the
+ * Feature Diagram Editor operations on synthetic Feature Models.
+ * 
+ */
+package org.eclipse.featuremodel.diagrameditor.benchmarks;